@@ -0,0 +1,27 @@
+package bsr.project.checkers.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * uruchamia JMH z zapisem wyników do pliku JSON (do porównywania wydań),
+ * chyba że format wyników został podany w argumentach
+ */
+public class BenchmarkRunner {
+	
+	private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+	
+	public static void main(String[] args) throws Exception {
+		List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+		if (!jmhArgs.contains("-rf")) {
+			jmhArgs.add("-rf");
+			jmhArgs.add("json");
+			if (!jmhArgs.contains("-rff")) {
+				jmhArgs.add("-rff");
+				jmhArgs.add(DEFAULT_RESULT_FILE);
+			}
+		}
+		org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[jmhArgs.size()]));
+	}
+}
@@ -0,0 +1,100 @@
+package bsr.project.checkers.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bsr.project.checkers.config.DispatchMode;
+import bsr.project.checkers.dispatcher.AbstractEvent;
+import bsr.project.checkers.dispatcher.EventDispatcher;
+import bsr.project.checkers.dispatcher.IEventObserver;
+import bsr.project.checkers.dispatcher.WaitStrategy;
+
+/**
+ * przepustowość wysyłania zdarzeń przez 1, 8 i 64 wątki nadawców dla każdego trybu dyspozytora
+ * (w trybach asynchronicznych mierzone jest przyjęcie zdarzenia, obsługa odbywa się w tle)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventDispatcherBenchmark {
+	
+	@Param({"SYNC", "ACTOR", "RING"})
+	private DispatchMode mode;
+	
+	private final LongAdder handled = new LongAdder();
+	
+	/** zdarzenie bez nadawcy - obsługa to tylko zliczenie */
+	public static class BenchmarkEvent extends AbstractEvent {
+	}
+	
+	private static final BenchmarkEvent EVENT = new BenchmarkEvent();
+	
+	private final IEventObserver observer = new IEventObserver() {
+		@Override
+		public void registerEvents() {
+			EventDispatcher.registerEventObserver(BenchmarkEvent.class, this);
+		}
+		
+		@Override
+		public void onEvent(AbstractEvent event) {
+			handled.increment();
+		}
+	};
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		switch (mode) {
+			case ACTOR:
+				EventDispatcher.useActorMailboxes(Runtime.getRuntime().availableProcessors());
+				break;
+			case RING:
+				EventDispatcher.useRingBuffer(4096, WaitStrategy.PARK, 256);
+				break;
+			default:
+				break;
+		}
+		observer.registerEvents();
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		EventDispatcher.unregisterEventObserver(observer);
+		EventDispatcher.shutdown();
+	}
+	
+	@Benchmark
+	@Threads(1)
+	public void sendEvent1Producer() {
+		EventDispatcher.sendEvent(EVENT);
+	}
+	
+	@Benchmark
+	@Threads(8)
+	public void sendEvent8Producers() {
+		EventDispatcher.sendEvent(EVENT);
+	}
+	
+	@Benchmark
+	@Threads(64)
+	public void sendEvent64Producers() {
+		EventDispatcher.sendEvent(EVENT);
+	}
+}
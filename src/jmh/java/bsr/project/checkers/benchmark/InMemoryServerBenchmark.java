@@ -0,0 +1,194 @@
+package bsr.project.checkers.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bsr.project.checkers.ServerApplication;
+import bsr.project.checkers.client.MemoryTransport;
+import bsr.project.checkers.config.Configuration;
+
+/**
+ * cały serwer (dyspozytor, kontroler pakietów, silnik gry) uruchomiony w procesie testu,
+ * klienci połączeni potokami w pamięci - bez gniazd i sieci;
+ * mierzony jest czas od wysłania pakietów do odebrania wszystkich odpowiedzi
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InMemoryServerBenchmark {
+	
+	@State(Scope.Benchmark)
+	public static class Server {
+		
+		@Param({"SYNC", "ACTOR", "RING"})
+		private String dispatcherMode;
+		
+		private ServerApplication server;
+		private File usersFile;
+		private final AtomicInteger logins = new AtomicInteger();
+		
+		@Setup(Level.Trial)
+		public void start() throws IOException {
+			// accounts of simulated players are not written to the server's accounts.properties
+			usersFile = File.createTempFile("accounts", ".properties");
+			usersFile.deleteOnExit();
+			Properties prop = new Properties();
+			prop.setProperty("connection.mode", "memory");
+			prop.setProperty("dispatcher.mode", dispatcherMode);
+			prop.setProperty("users.file", usersFile.getPath());
+			server = new ServerApplication(new Configuration(prop));
+			server.start();
+		}
+		
+		@TearDown(Level.Trial)
+		public void stop() throws InterruptedException {
+			server.stop();
+			usersFile.delete();
+		}
+		
+		/**
+		 * nowy klient: rejestracja i logowanie
+		 */
+		Client connect() throws IOException {
+			Client client = new Client(server.connectInMemory(), "bench" + logins.incrementAndGet());
+			client.send("CRA#" + client.login + "#pw");
+			client.skipLines(1);
+			client.send("LGN#" + client.login + "#pw");
+			client.skipLines(1);
+			return client;
+		}
+	}
+	
+	/**
+	 * para zalogowanych graczy dla każdego wątku testu
+	 */
+	@State(Scope.Thread)
+	public static class Players {
+		
+		private Client white;
+		private Client black;
+		
+		private byte[] invite;
+		private static final byte[] ACCEPT = Client.packet("RP1#1");
+		private static final byte[] WHITE_MOVE = Client.packet("MOV#0#5#1#4");
+		private static final byte[] BLACK_MOVE = Client.packet("MOV#1#2#0#3");
+		private static final byte[] GIVE_UP = Client.packet("GVU");
+		private static final byte[] LIST_PLAYERS = Client.packet("LSP");
+		
+		@Setup(Level.Trial)
+		public void connect(Server server) throws IOException {
+			white = server.connect();
+			black = server.connect();
+			invite = Client.packet("RFP#" + black.login);
+		}
+		
+		@TearDown(Level.Trial)
+		public void disconnect() {
+			white.transport.close();
+			black.transport.close();
+		}
+	}
+	
+	@Benchmark
+	public void listPlayers(Players players) throws IOException {
+		players.white.send(Players.LIST_PLAYERS);
+		players.white.skipLines(1);
+	}
+	
+	@Benchmark
+	@Threads(8)
+	public void listPlayers8Threads(Players players) throws IOException {
+		listPlayers(players);
+	}
+	
+	/**
+	 * zaproszenie, przyjęcie, po jednym ruchu każdego gracza i poddanie gry
+	 */
+	@Benchmark
+	public void shortGame(Players players) throws IOException {
+		Client white = players.white;
+		Client black = players.black;
+		// RFP -> RFP / RP1
+		white.send(players.invite);
+		white.skipLines(1);
+		black.skipLines(1);
+		// RP1 -> RP2, INI, CHB, YMV / INI, CHB
+		black.send(Players.ACCEPT);
+		white.skipLines(4);
+		black.skipLines(2);
+		// MOV -> MOV, CHB / CHB, YMV
+		white.send(Players.WHITE_MOVE);
+		white.skipLines(2);
+		black.skipLines(2);
+		black.send(Players.BLACK_MOVE);
+		black.skipLines(2);
+		white.skipLines(2);
+		// GVU -> EOG / EOG
+		white.send(Players.GIVE_UP);
+		white.skipLines(1);
+		black.skipLines(1);
+	}
+	
+	/**
+	 * strona klienta połączenia w pamięci - odpowiedzi są tylko odliczane (po znakach końca linii)
+	 */
+	static class Client {
+		
+		private final MemoryTransport transport;
+		private final String login;
+		private final byte[] readBuffer = new byte[4096];
+		/** odebrane, jeszcze nie odliczone linie */
+		private int receivedLines = 0;
+		
+		Client(MemoryTransport transport, String login) {
+			this.transport = transport;
+			this.login = login;
+		}
+		
+		static byte[] packet(String packet) {
+			return (packet + "\n").getBytes(StandardCharsets.US_ASCII);
+		}
+		
+		void send(String packet) throws IOException {
+			send(packet(packet));
+		}
+		
+		void send(byte[] packet) throws IOException {
+			transport.write(packet, 0, packet.length);
+		}
+		
+		void skipLines(int lines) throws IOException {
+			while (receivedLines < lines) {
+				int read = transport.read(readBuffer);
+				if (read < 0)
+					throw new IOException("Connection closed by server");
+				for (int i = 0; i < read; i++) {
+					if (readBuffer[i] == '\n')
+						receivedLines++;
+				}
+			}
+			receivedLines -= lines;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package bsr.project.checkers.benchmark;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import bsr.project.checkers.game.Point;
+
+/**
+ * poprzednia implementacja parsera (String.split, parametry w List<Object>) - punkt odniesienia dla benchmarków
+ */
+class LegacyPacketsParser {
+	
+	private static final String SEPARATOR = "#";
+	
+	private String getPart(String[] parts, int index) throws ParseException {
+		if (index >= parts.length)
+			throw new ParseException("not enough parameters", 0);
+		return parts[index];
+	}
+	
+	private int getPartInt(String[] parts, int index) throws ParseException {
+		String numberStr = getPart(parts, index);
+		try {
+			return Integer.parseInt(numberStr);
+		} catch (NumberFormatException e) {
+			throw new ParseException("invalid number format: " + numberStr, 0);
+		}
+	}
+	
+	List<Object> parsePacket(String packetStr) throws ParseException {
+		String[] parts = packetStr.split(SEPARATOR);
+		String code = getPart(parts, 0);
+		List<Object> parameters = new ArrayList<>();
+		parameters.add(code);
+		switch (code) {
+			case "LGN":
+			case "CRA":
+				parameters.add(getPart(parts, 1));
+				parameters.add(getPart(parts, 2));
+				break;
+			case "MOV":
+				parameters.add(new Point(getPartInt(parts, 1), getPartInt(parts, 2)));
+				parameters.add(new Point(getPartInt(parts, 3), getPartInt(parts, 4)));
+				break;
+			default:
+				throw new ParseException("Unknown packet code: " + code, 0);
+		}
+		return parameters;
+	}
+}
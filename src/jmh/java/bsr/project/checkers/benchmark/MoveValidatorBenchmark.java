@@ -0,0 +1,87 @@
+package bsr.project.checkers.benchmark;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bsr.project.checkers.game.Board;
+import bsr.project.checkers.game.Point;
+import bsr.project.checkers.game.validator.InvalidMoveException;
+import bsr.project.checkers.game.validator.MoveList;
+import bsr.project.checkers.game.validator.MoveValidator;
+import bsr.project.checkers.protocol.BoardSymbols;
+
+/**
+ * walidacja ruchu wysłanego przez klienta (poprawnego i odrzuconego) w pozycjach o różnej liczbie bić
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveValidatorBenchmark {
+	
+	private static final String OPENING = "OCOCOCOCCOCOCOCOOCOCOCOCOOOOOOOOOOOOOOOOBOBOBOBOOBOBOBOBBOBOBOBO";
+	// white to move, kings of both colors
+	private static final String MIDGAME = "OCOOOCODCOOOOOOOOOOOOOOBOOOOOOOOOOOOOOOBOOOOOOOOOOOOOOOOOOBOEOOO";
+	// white to move, several captures available (including multi-jumps)
+	private static final String CAPTURES = "OCOOOCOOCOOOOOCOOOOOOOOOBOBOCOCOOOOOOOOOBOOOOOCOOBOBOBOBOOBOBOOO";
+	
+	@Param({"opening", "midgame", "captures"})
+	private String position;
+	
+	private MoveValidator validator = new MoveValidator();
+	private Board board;
+	private Point validSource;
+	private Point validTarget;
+	private Point invalidTarget;
+	
+	@Setup
+	public void setUp() {
+		switch (position) {
+			case "midgame":
+				board = Board.fromString(MIDGAME);
+				break;
+			case "captures":
+				board = Board.fromString(CAPTURES);
+				break;
+			default:
+				board = Board.fromString(OPENING);
+				break;
+		}
+		MoveList moves = new MoveList();
+		validator.generateLegalMoves(BoardSymbols.WHITE_PAWN, board, -1, moves);
+		int move = moves.get(moves.size() - 1);
+		validSource = Point.ofSquare(MoveList.from(move));
+		validTarget = Point.ofSquare(MoveList.to(move));
+		// moving by 3 fields is always rejected
+		invalidTarget = Point.of(validSource.x < 4 ? validSource.x + 3 : validSource.x - 3, validSource.y < 4 ? validSource.y + 3 : validSource.y - 3);
+	}
+	
+	@Benchmark
+	public Optional<Point> validMove() throws InvalidMoveException {
+		return validator.advancedMoveValidation(BoardSymbols.WHITE_PAWN, board, validSource, validTarget, Optional.empty());
+	}
+	
+	@Benchmark
+	public String invalidMove() {
+		try {
+			validator.advancedMoveValidation(BoardSymbols.WHITE_PAWN, board, validSource, invalidTarget, Optional.empty());
+			return null;
+		} catch (InvalidMoveException e) {
+			return e.getMessage();
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package bsr.project.checkers.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bsr.project.checkers.client.ClientData;
+import bsr.project.checkers.game.Board;
+import bsr.project.checkers.game.Point;
+import bsr.project.checkers.protocol.BoardDeltaState;
+import bsr.project.checkers.protocol.BoardSymbols;
+import bsr.project.checkers.protocol.IOutboundPacket;
+import bsr.project.checkers.protocol.OutboundBuffer;
+import bsr.project.checkers.protocol.PacketsBuilder;
+
+/**
+ * budowanie pakietów wychodzących i zapis do bufora połączenia (bez wysyłania), dla każdego typu pakietu
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PacketsBuilderBenchmark {
+	
+	private static final int PLAYERS = 20;
+	
+	private PacketsBuilder builder = new PacketsBuilder();
+	private OutboundBuffer out = new OutboundBuffer(256);
+	
+	private List<ClientData> players = new ArrayList<>();
+	private Board board = new Board();
+	private Board movedBoard = new Board();
+	private BoardDeltaState deltaState = new BoardDeltaState();
+	private boolean moved = false;
+	
+	@Setup
+	public void setUp() {
+		for (int i = 0; i < PLAYERS; i++) {
+			ClientData player = new ClientData(null);
+			player.setLogin("player" + i);
+			players.add(player);
+		}
+		// boards differing by one move - every update is sent as a delta
+		movedBoard.setCell(Point.of(0, 5), BoardSymbols.EMPTY);
+		movedBoard.setCell(Point.of(1, 4), BoardSymbols.WHITE_PAWN);
+	}
+	
+	private int write(IOutboundPacket packet) {
+		out.clear();
+		out.writePacket(packet);
+		return out.length();
+	}
+	
+	@Benchmark
+	public int login() {
+		return write(builder.responseLogin(true));
+	}
+	
+	@Benchmark
+	public int listPlayers() {
+		return write(builder.responseListPlayers(players));
+	}
+	
+	@Benchmark
+	public int invitationForGame() {
+		return write(builder.requestInvitationForGame("player1234"));
+	}
+	
+	@Benchmark
+	public int newGame() {
+		return write(builder.requestNewGame(BoardSymbols.WHITE_PAWN));
+	}
+	
+	@Benchmark
+	public int changedBoard() {
+		return write(builder.requestChangedBoard(board));
+	}
+	
+	@Benchmark
+	public int boardUpdate() {
+		moved = !moved;
+		return write(builder.requestBoardUpdate(deltaState, moved ? movedBoard : board));
+	}
+	
+	@Benchmark
+	public int yourMove() {
+		return write(builder.requestYourMove());
+	}
+	
+	@Benchmark
+	public int makeMove() {
+		return write(builder.responseMakeMove(true));
+	}
+	
+	@Benchmark
+	public int gameOver() {
+		return write(builder.requestGameOver("player1234", "No move is possible to make by next player"));
+	}
+	
+	@Benchmark
+	public int protocolError() {
+		return write(builder.requestProtocolError("Invalid client state: LOGGED_OUT"));
+	}
+}
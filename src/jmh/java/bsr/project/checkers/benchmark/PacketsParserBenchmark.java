@@ -0,0 +1,110 @@
+package bsr.project.checkers.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bsr.project.checkers.protocol.ByteSequence;
+import bsr.project.checkers.protocol.PacketsParser;
+import bsr.project.checkers.protocol.ProtocolPacket;
+
+/**
+ * parser jednoprzebiegowy (na widoku odebranych bajtów) w porównaniu z poprzednim parserem opartym na String.split
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PacketsParserBenchmark {
+	
+	private static final String MOVE = "MOV#2#5#3#4";
+	private static final String LOGIN = "LGN#player1234#secret";
+	private static final String CREATE_ACCOUNT = "CRA#player1234#secret";
+	private static final String LIST_PLAYERS = "LSP";
+	private static final String REQUEST_GAME = "RFP#player5678";
+	private static final String INVITATION_RESPONSE = "RP1#1";
+	private static final String MULTI_JUMP = "MOV#3#2#5#4#7#6";
+	private static final String ERROR = "ERR#invalid packet";
+	
+	private PacketsParser parser = new PacketsParser();
+	private LegacyPacketsParser legacyParser = new LegacyPacketsParser();
+	
+	// received frames, as passed to the parser by the connections
+	private ByteSequence moveFrame = frame(MOVE);
+	private ByteSequence loginFrame = frame(LOGIN);
+	private ByteSequence createAccountFrame = frame(CREATE_ACCOUNT);
+	private ByteSequence listPlayersFrame = frame(LIST_PLAYERS);
+	private ByteSequence requestGameFrame = frame(REQUEST_GAME);
+	private ByteSequence invitationResponseFrame = frame(INVITATION_RESPONSE);
+	private ByteSequence multiJumpFrame = frame(MULTI_JUMP);
+	private ByteSequence errorFrame = frame(ERROR);
+	
+	private static ByteSequence frame(String packet) {
+		byte[] bytes = packet.getBytes(StandardCharsets.US_ASCII);
+		return new ByteSequence(bytes, 0, bytes.length);
+	}
+	
+	@Benchmark
+	public ProtocolPacket parseMove() throws ParseException {
+		return parser.parsePacket(moveFrame);
+	}
+	
+	@Benchmark
+	public List<Object> parseMoveLegacy() throws ParseException {
+		// the legacy path decoded every frame to a String first
+		return legacyParser.parsePacket(moveFrame.toString());
+	}
+	
+	@Benchmark
+	public ProtocolPacket parseLogin() throws ParseException {
+		return parser.parsePacket(loginFrame);
+	}
+	
+	@Benchmark
+	public List<Object> parseLoginLegacy() throws ParseException {
+		return legacyParser.parsePacket(loginFrame.toString());
+	}
+	
+	@Benchmark
+	public ProtocolPacket parseCreateAccount() throws ParseException {
+		return parser.parsePacket(createAccountFrame);
+	}
+	
+	@Benchmark
+	public ProtocolPacket parseListPlayers() throws ParseException {
+		return parser.parsePacket(listPlayersFrame);
+	}
+	
+	@Benchmark
+	public ProtocolPacket parseRequestGame() throws ParseException {
+		return parser.parsePacket(requestGameFrame);
+	}
+	
+	@Benchmark
+	public ProtocolPacket parseInvitationResponse() throws ParseException {
+		return parser.parsePacket(invitationResponseFrame);
+	}
+	
+	@Benchmark
+	public ProtocolPacket parseMultiJump() throws ParseException {
+		return parser.parsePacket(multiJumpFrame);
+	}
+	
+	@Benchmark
+	public ProtocolPacket parseError() throws ParseException {
+		return parser.parsePacket(errorFrame);
+	}
+}
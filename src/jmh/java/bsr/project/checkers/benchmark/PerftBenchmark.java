@@ -0,0 +1,54 @@
+package bsr.project.checkers.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bsr.project.checkers.game.Board;
+import bsr.project.checkers.game.validator.Perft;
+import bsr.project.checkers.protocol.BoardSymbols;
+
+/**
+ * szybkość generatora ruchów - perft z planszy początkowej (liczba pozycji / czas = pozycje na sekundę),
+ * przed pomiarem generator jest sprawdzany na pozycjach kontrolnych
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PerftBenchmark {
+	
+	@Param({"8", "10"})
+	private int depth;
+	
+	private Perft perft;
+	private Board board;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		perft = new Perft(depth);
+		// a fast but incorrect generator is not worth measuring
+		String error = perft.check();
+		if (error != null)
+			throw new IllegalStateException("perft check failed: " + error);
+		board = new Board();
+	}
+	
+	@Benchmark
+	public long perftInitial() {
+		return perft.perft(board, BoardSymbols.WHITE_PAWN, depth);
+	}
+}
@@ -0,0 +1,84 @@
+package bsr.project.checkers.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bsr.project.checkers.users.UsersDatabase;
+
+/**
+ * wyszukiwanie kont w bazie użytkowników (rejestracja i logowanie) dla 10 tys. i 1 mln kont,
+ * baza wczytywana z pliku tymczasowego (plik accounts.properties serwera nie jest zmieniany)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class UsersDatabaseBenchmark {
+	
+	private static final String PASSWORD = "secret";
+	
+	@Param({"10000", "1000000"})
+	private int users;
+	
+	private UsersDatabase database;
+	private String existingLogin;
+	private String missingLogin = "nobody";
+	
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, NoSuchAlgorithmException {
+		// the same checksum format as written by UsersDatabase
+		MessageDigest md = MessageDigest.getInstance("MD5");
+		md.update(PASSWORD.getBytes());
+		String pwdCksum = new BigInteger(1, md.digest()).toString(16);
+		
+		Properties accounts = new Properties();
+		for (int i = 0; i < users; i++) {
+			accounts.setProperty("user" + i, pwdCksum);
+		}
+		File datafile = File.createTempFile("accounts", ".properties");
+		datafile.deleteOnExit();
+		try (OutputStream output = new FileOutputStream(datafile)) {
+			accounts.store(output, null);
+		}
+		database = new UsersDatabase(datafile.getPath());
+		// login in the middle of the (unordered) users list
+		existingLogin = database.getUsers().get(users / 2).getLogin();
+	}
+	
+	@Benchmark
+	public boolean userExists() {
+		return database.userExists(existingLogin);
+	}
+	
+	@Benchmark
+	public boolean userMissing() {
+		return database.userExists(missingLogin);
+	}
+	
+	@Benchmark
+	public boolean passwordValid() {
+		return database.passwordValid(existingLogin, PASSWORD);
+	}
+}
@@ -0,0 +1,147 @@
+package bsr.project.checkers.benchmark.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import bsr.project.checkers.ServerApplication;
+import bsr.project.checkers.config.Configuration;
+
+/**
+ * generator obciążenia - N symulowanych graczy łączy się z działającym serwerem i przechodzi cały protokół:
+ * CRA, LGN, LSP, RFP / RP1, a następnie rozgrywa gry losowymi ruchami aż do EOG;
+ * na końcu wypisuje percentyle czasów odpowiedzi dla rodzajów pakietów, ruchy na sekundę i tempo nawiązywania połączeń
+ * <p>
+ * uruchomienie: java -cp target/benchmarks.jar bsr.project.checkers.benchmark.load.LoadGenerator [klucz=wartość...]
+ * <p>
+ * z parametrem server=thread|virtual|nio serwer jest uruchamiany w tym samym procesie z podanym trybem połączeń
+ * (porównanie wątków platformowych, wirtualnych i NIO przy tym samym obciążeniu)
+ */
+public class LoadGenerator {
+	
+	private static final String USAGE = "parameters (key=value): host, port, clients, games (per pair), moves (per player in one game, then give up), "
+			+ "loops (selector threads), timeout (seconds), prefix (login prefix), seed, "
+			+ "server (thread | virtual | nio - start the server in-process with this connection mode), dispatcher (sync | actor | ring)";
+	
+	/** czas oczekiwania na nasłuchiwanie serwera uruchomionego w procesie */
+	private static final long SERVER_START_TIMEOUT_MS = 10000;
+	
+	public static void main(String[] args) throws Exception {
+		Map<String, String> params = new HashMap<>();
+		for (String arg : args) {
+			int separator = arg.indexOf('=');
+			if (separator < 0) {
+				System.out.println(USAGE);
+				return;
+			}
+			params.put(arg.substring(0, separator), arg.substring(separator + 1));
+		}
+		String host = params.getOrDefault("host", "localhost");
+		int port = Integer.parseInt(params.getOrDefault("port", "4000"));
+		int clientsCount = Integer.parseInt(params.getOrDefault("clients", "100"));
+		int games = Integer.parseInt(params.getOrDefault("games", "1"));
+		int maxMoves = Integer.parseInt(params.getOrDefault("moves", "200"));
+		int loopsCount = Integer.parseInt(params.getOrDefault("loops", "1"));
+		int timeout = Integer.parseInt(params.getOrDefault("timeout", "300"));
+		// logins have to be unique between runs against the same users database
+		String prefix = params.getOrDefault("prefix", "load" + Long.toString(System.currentTimeMillis() % 1000000, 36) + "_");
+		long seed = Long.parseLong(params.getOrDefault("seed", "1"));
+		
+		InetSocketAddress address = new InetSocketAddress(host, port);
+		
+		ServerApplication server = null;
+		File usersFile = null;
+		if (params.containsKey("server")) {
+			// accounts of simulated players are not written to the server's accounts.properties
+			usersFile = File.createTempFile("accounts", ".properties");
+			usersFile.deleteOnExit();
+			Properties prop = new Properties();
+			prop.setProperty("port", Integer.toString(port));
+			prop.setProperty("connection.mode", params.get("server"));
+			prop.setProperty("dispatcher.mode", params.getOrDefault("dispatcher", "sync"));
+			prop.setProperty("users.file", usersFile.getPath());
+			server = new ServerApplication(new Configuration(prop));
+			server.start();
+			waitForServer(address);
+		}
+		
+		List<LoadLoop> loops = new ArrayList<>();
+		List<LoadStatistics> statistics = new ArrayList<>();
+		List<List<SimulatedClient>> loopClients = new ArrayList<>();
+		for (int i = 0; i < loopsCount; i++) {
+			statistics.add(new LoadStatistics());
+			loopClients.add(new ArrayList<>());
+		}
+		for (int i = 0; i < clientsCount; i++) {
+			boolean inviting = i % 2 == 0;
+			int partnerIndex = inviting ? i + 1 : i - 1;
+			String partner = partnerIndex < clientsCount ? prefix + partnerIndex : null;
+			// pairs are kept in the same loop, so that they connect at the same time
+			int loop = (i / 2) % loopsCount;
+			loopClients.get(loop).add(new SimulatedClient(prefix + i, partner, inviting, games, maxMoves, seed + i, statistics.get(loop)));
+		}
+		
+		System.out.println("load: " + clientsCount + " clients, " + games + " game(s) per pair, " + loopsCount + " loop(s) -> " + address);
+		long startedAt = System.nanoTime();
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < loopsCount; i++) {
+			LoadLoop loop = new LoadLoop(address, loopClients.get(i), statistics.get(i));
+			loops.add(loop);
+			Thread thread = new Thread(loop, "load-loop-" + i);
+			threads.add(thread);
+			thread.start();
+		}
+		
+		long deadline = System.currentTimeMillis() + timeout * 1000L;
+		for (Thread thread : threads) {
+			thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+		}
+		boolean timedOut = false;
+		for (int i = 0; i < loopsCount; i++) {
+			if (threads.get(i).isAlive()) {
+				timedOut = true;
+				loops.get(i).stop();
+			}
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		long elapsed = System.nanoTime() - startedAt;
+		
+		if (timedOut)
+			System.out.println("timeout " + timeout + " s reached - not all clients have finished");
+		LoadStatistics total = new LoadStatistics();
+		for (LoadStatistics loopStatistics : statistics) {
+			total.merge(loopStatistics);
+		}
+		total.print(clientsCount, startedAt, elapsed);
+		
+		if (server != null) {
+			server.stop();
+			usersFile.delete();
+		}
+	}
+	
+	/**
+	 * czeka, aż serwer uruchomiony w procesie zacznie przyjmować połączenia
+	 */
+	private static void waitForServer(InetSocketAddress address) throws IOException, InterruptedException {
+		long deadline = System.currentTimeMillis() + SERVER_START_TIMEOUT_MS;
+		while (true) {
+			try {
+				new Socket(address.getAddress(), address.getPort()).close();
+				return;
+			} catch (IOException e) {
+				if (System.currentTimeMillis() > deadline)
+					throw e;
+				Thread.sleep(50);
+			}
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package bsr.project.checkers.benchmark.load;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * pętla zdarzeń generatora obciążenia - jeden wątek z selektorem obsługuje wszystkie swoje połączenia
+ */
+class LoadLoop implements Runnable {
+	
+	/** maksymalna liczba jednocześnie nawiązywanych połączeń (nie przepełnia kolejki accept serwera) */
+	private static final int MAX_PENDING_CONNECTS = 64;
+	/** opóźnienie ponowienia zaproszenia, gdy partner nie jest jeszcze gotowy */
+	private static final long RETRY_DELAY = 20 * 1000000L;
+	private static final long SELECT_TIMEOUT_MS = 10;
+	
+	private final InetSocketAddress address;
+	private final List<SimulatedClient> clients;
+	private final LoadStatistics statistics;
+	private volatile boolean stopped = false;
+	
+	/** klienci czekający na ponowienie zaproszenia (w kolejności terminów) */
+	private final Queue<SimulatedClient> retries = new ArrayDeque<>();
+	private final Queue<Long> retryTimes = new ArrayDeque<>();
+	
+	private Selector selector;
+	private int nextToConnect = 0;
+	private int pendingConnects = 0;
+	private int finished = 0;
+	
+	LoadLoop(InetSocketAddress address, List<SimulatedClient> clients, LoadStatistics statistics) {
+		this.address = address;
+		this.clients = clients;
+		this.statistics = statistics;
+	}
+	
+	void stop() {
+		stopped = true;
+		if (selector != null)
+			selector.wakeup();
+	}
+	
+	@Override
+	public void run() {
+		try {
+			selector = Selector.open();
+			while (!stopped && finished < clients.size()) {
+				openConnections();
+				selector.select(SELECT_TIMEOUT_MS);
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					handle(key, (SimulatedClient) key.attachment());
+				}
+				retryInvitations();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			for (SimulatedClient client : clients) {
+				if (client.getChannel() != null)
+					client.finish();
+			}
+			try {
+				if (selector != null)
+					selector.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	private void openConnections() {
+		while (pendingConnects < MAX_PENDING_CONNECTS && nextToConnect < clients.size()) {
+			SimulatedClient client = clients.get(nextToConnect++);
+			try {
+				SocketChannel channel = SocketChannel.open();
+				channel.configureBlocking(false);
+				channel.socket().setTcpNoDelay(true);
+				SelectionKey key = channel.register(selector, SelectionKey.OP_CONNECT, client);
+				client.attach(channel, key);
+				if (channel.connect(address)) {
+					connected(client, key);
+				} else {
+					pendingConnects++;
+				}
+			} catch (IOException e) {
+				statistics.connectFailures++;
+				finished(client);
+			}
+		}
+	}
+	
+	private void handle(SelectionKey key, SimulatedClient client) {
+		if (client.isFinished())
+			return;
+		try {
+			if (key.isConnectable()) {
+				pendingConnects--;
+				try {
+					client.getChannel().finishConnect();
+				} catch (IOException e) {
+					statistics.connectFailures++;
+					finished(client);
+					return;
+				}
+				connected(client, key);
+				return;
+			}
+			if (key.isWritable())
+				client.write();
+			if (key.isReadable() && client.read())
+				scheduleRetry(client);
+		} catch (IOException e) {
+			statistics.disconnected++;
+			client.finish();
+		}
+		if (client.isFinished())
+			finished++;
+	}
+	
+	private void connected(SimulatedClient client, SelectionKey key) throws IOException {
+		statistics.connected++;
+		statistics.lastConnectedAt = System.nanoTime();
+		key.interestOps(SelectionKey.OP_READ);
+		client.connected();
+	}
+	
+	private void finished(SimulatedClient client) {
+		client.finish();
+		finished++;
+	}
+	
+	private void scheduleRetry(SimulatedClient client) {
+		retries.add(client);
+		retryTimes.add(System.nanoTime() + RETRY_DELAY);
+	}
+	
+	private void retryInvitations() {
+		long now = System.nanoTime();
+		while (!retryTimes.isEmpty() && retryTimes.peek() <= now) {
+			retryTimes.poll();
+			SimulatedClient client = retries.poll();
+			try {
+				client.retry();
+			} catch (IOException e) {
+				statistics.disconnected++;
+				finished(client);
+			}
+		}
+	}
+}
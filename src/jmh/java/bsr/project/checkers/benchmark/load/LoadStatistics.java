@@ -0,0 +1,125 @@
+package bsr.project.checkers.benchmark.load;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * wyniki jednej pętli generatora obciążenia (bez synchronizacji - każda pętla ma własne),
+ * łączone po zakończeniu testu
+ */
+class LoadStatistics {
+	
+	/** rodzaje zapytań, dla których mierzony jest czas odpowiedzi */
+	enum Request {
+		CRA("CRA -> CRA"),
+		LGN("LGN -> LGN"),
+		LSP("LSP -> LSP"),
+		RFP("RFP -> RFP"),
+		RP1("RP1 -> INI"),
+		MOV("MOV -> MOV"),
+		GVU("GVU -> EOG");
+		
+		final String label;
+		
+		Request(String label) {
+			this.label = label;
+		}
+	}
+	
+	/** czasy odpowiedzi w nanosekundach dla każdego rodzaju zapytania */
+	private final Map<Request, Samples> latencies = new EnumMap<>(Request.class);
+	
+	long connected;
+	long connectFailures;
+	/** czas nawiązania ostatniego połączenia (System.nanoTime) */
+	long lastConnectedAt;
+	long gamesFinished;
+	long movesAccepted;
+	long movesRejected;
+	long givenUp;
+	long errors;
+	long disconnected;
+	
+	LoadStatistics() {
+		for (Request request : Request.values()) {
+			latencies.put(request, new Samples());
+		}
+	}
+	
+	void latency(Request request, long nanos) {
+		latencies.get(request).add(nanos);
+	}
+	
+	void merge(LoadStatistics other) {
+		for (Request request : Request.values()) {
+			latencies.get(request).addAll(other.latencies.get(request));
+		}
+		connected += other.connected;
+		connectFailures += other.connectFailures;
+		lastConnectedAt = Math.max(lastConnectedAt, other.lastConnectedAt);
+		gamesFinished += other.gamesFinished;
+		movesAccepted += other.movesAccepted;
+		movesRejected += other.movesRejected;
+		givenUp += other.givenUp;
+		errors += other.errors;
+		disconnected += other.disconnected;
+	}
+	
+	/**
+	 * @param startedAt początek testu (System.nanoTime)
+	 * @param elapsed   czas trwania testu w nanosekundach
+	 */
+	void print(int clients, long startedAt, long elapsed) {
+		double seconds = Math.max(1, elapsed) / 1e9;
+		double connectSeconds = Math.max(1, lastConnectedAt - startedAt) / 1e9;
+		System.out.println(String.format("duration: %.2f s", seconds));
+		System.out.println(String.format("connections: %d / %d (failed %d), setup rate: %.1f conn/s",
+				connected, clients, connectFailures, connected / connectSeconds));
+		System.out.println(String.format("games finished: %d (%d given up), moves: %d accepted, %d rejected, %.1f moves/s",
+				gamesFinished, givenUp, movesAccepted, movesRejected, movesAccepted / seconds));
+		System.out.println(String.format("protocol errors: %d, disconnected by server: %d", errors, disconnected));
+		System.out.println(String.format("%-12s %10s %10s %10s %10s %10s", "latency [ms]", "count", "p50", "p90", "p99", "max"));
+		for (Request request : Request.values()) {
+			Samples samples = latencies.get(request);
+			if (samples.size == 0)
+				continue;
+			samples.sort();
+			System.out.println(String.format("%-12s %10d %10.3f %10.3f %10.3f %10.3f", request.label, samples.size,
+					samples.percentile(0.5) / 1e6, samples.percentile(0.9) / 1e6, samples.percentile(0.99) / 1e6,
+					samples.percentile(1.0) / 1e6));
+		}
+	}
+	
+	/**
+	 * wszystkie pomiary (bez histogramu - percentyle są dokładne)
+	 */
+	private static class Samples {
+		
+		private long[] values = new long[1024];
+		private int size = 0;
+		
+		void add(long value) {
+			if (size == values.length)
+				values = Arrays.copyOf(values, size * 2);
+			values[size++] = value;
+		}
+		
+		void addAll(Samples other) {
+			if (size + other.size > values.length)
+				values = Arrays.copyOf(values, Math.max(size + other.size, size * 2));
+			System.arraycopy(other.values, 0, values, size, other.size);
+			size += other.size;
+		}
+		
+		void sort() {
+			Arrays.sort(values, 0, size);
+		}
+		
+		/** percentyl posortowanych pomiarów (metoda najbliższej rangi) */
+		long percentile(double fraction) {
+			int rank = (int) Math.ceil(fraction * size);
+			return values[Math.max(0, Math.min(size, rank) - 1)];
+		}
+	}
+}
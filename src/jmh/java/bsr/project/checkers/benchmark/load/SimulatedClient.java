@@ -0,0 +1,298 @@
+package bsr.project.checkers.benchmark.load;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import bsr.project.checkers.benchmark.load.LoadStatistics.Request;
+import bsr.project.checkers.game.Bitboards;
+import bsr.project.checkers.game.Board;
+import bsr.project.checkers.game.validator.CapturePaths;
+import bsr.project.checkers.game.validator.MoveGenerator;
+import bsr.project.checkers.game.validator.MoveList;
+
+/**
+ * symulowany gracz: rejestracja, logowanie, lista graczy, zaproszenie (lub jego przyjęcie)
+ * i rozgrywki losowymi dozwolonymi ruchami do końca gry;
+ * obsługiwany wyłącznie przez wątek swojej pętli {@link LoadLoop}
+ */
+class SimulatedClient {
+	
+	private static final String PASSWORD = "load";
+	/** ruch może wykonać dowolna bierka */
+	private static final int ANY_SOURCE = -1;
+	
+	private final String login;
+	/** login drugiego gracza z pary lub null, jeśli klient nie ma pary */
+	private final String partner;
+	/** klient z parzystym numerem zaprasza, z nieparzystym przyjmuje zaproszenia */
+	private final boolean inviting;
+	private final int games;
+	private final int maxMoves;
+	private final Random random;
+	private final LoadStatistics statistics;
+	
+	private SocketChannel channel;
+	private SelectionKey key;
+	private final ByteBuffer input = ByteBuffer.allocate(8192);
+	private ByteBuffer output = ByteBuffer.allocate(512);
+	private final StringBuilder line = new StringBuilder(128);
+	
+	/** czas wysłania ostatniego zapytania danego rodzaju (System.nanoTime) */
+	private final long[] sentAt = new long[Request.values().length];
+	
+	private char color;
+	private Board board;
+	private int gamesPlayed = 0;
+	private int movesInGame = 0;
+	private boolean finished = false;
+	
+	private final CapturePaths capturePaths = new CapturePaths();
+	private final MoveGenerator generator = new MoveGenerator();
+	private final MoveList moves = new MoveList();
+	
+	SimulatedClient(String login, String partner, boolean inviting, int games, int maxMoves, long seed, LoadStatistics statistics) {
+		this.login = login;
+		this.partner = partner;
+		this.inviting = inviting;
+		this.games = games;
+		this.maxMoves = maxMoves;
+		this.random = new Random(seed);
+		this.statistics = statistics;
+	}
+	
+	void attach(SocketChannel channel, SelectionKey key) {
+		this.channel = channel;
+		this.key = key;
+	}
+	
+	SocketChannel getChannel() {
+		return channel;
+	}
+	
+	boolean isFinished() {
+		return finished;
+	}
+	
+	/**
+	 * połączenie zostało nawiązane - pierwsze zapytanie
+	 */
+	void connected() throws IOException {
+		send(Request.CRA, "CRA#" + login + "#" + PASSWORD);
+	}
+	
+	/**
+	 * ponowienie zaproszenia po odmowie (partner jeszcze nie jest zalogowany albo kończy poprzednią grę)
+	 */
+	void retry() throws IOException {
+		if (!finished)
+			send(Request.LSP, "LSP");
+	}
+	
+	/**
+	 * @return true, jeśli zaproszenie ma zostać ponowione po opóźnieniu
+	 */
+	boolean read() throws IOException {
+		int read = channel.read(input);
+		if (read < 0) {
+			statistics.disconnected++;
+			finish();
+			return false;
+		}
+		boolean retry = false;
+		input.flip();
+		while (input.hasRemaining() && !finished) {
+			char c = (char) (input.get() & 0xFF);
+			if (c == '\n') {
+				retry |= received(line.toString());
+				line.setLength(0);
+			} else if (c != '\r') {
+				line.append(c);
+			}
+		}
+		input.clear();
+		return retry;
+	}
+	
+	void write() throws IOException {
+		output.flip();
+		channel.write(output);
+		output.compact();
+		if (output.position() == 0 && key.isValid())
+			key.interestOps(SelectionKey.OP_READ);
+	}
+	
+	void finish() {
+		if (finished)
+			return;
+		finished = true;
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// already closed
+		}
+	}
+	
+	/**
+	 * @return true, jeśli zaproszenie ma zostać ponowione
+	 */
+	private boolean received(String packet) throws IOException {
+		if (packet.length() < 3)
+			return false;
+		String type = packet.substring(0, 3);
+		String param = packet.length() > 4 ? packet.substring(4) : "";
+		switch (type) {
+			case "CRA":
+				// account may already exist (previous run) - log in anyway
+				answered(Request.CRA);
+				send(Request.LGN, "LGN#" + login + "#" + PASSWORD + "#MJUMP");
+				break;
+			case "LGN":
+				answered(Request.LGN);
+				if (!param.startsWith("1")) {
+					statistics.errors++;
+					finish();
+				} else {
+					send(Request.LSP, "LSP");
+				}
+				break;
+			case "LSP":
+				answered(Request.LSP);
+				if (partner == null) {
+					// nobody to play with
+					logOut();
+				} else if (inviting) {
+					send(Request.RFP, "RFP#" + partner);
+				}
+				break;
+			case "RFP":
+				answered(Request.RFP);
+				// partner is not logged in yet
+				return param.startsWith("0");
+			case "RP1":
+				// invitation from partner
+				send(Request.RP1, "RP1#1");
+				break;
+			case "INI":
+				if (!inviting)
+					answered(Request.RP1);
+				color = param.charAt(0);
+				movesInGame = 0;
+				break;
+			case "CHB":
+				board = Board.fromString(param);
+				break;
+			case "YMV":
+				makeMove();
+				break;
+			case "MOV":
+				answered(Request.MOV);
+				if (param.startsWith("1")) {
+					statistics.movesAccepted++;
+				} else {
+					// should not happen - random moves are legal
+					statistics.movesRejected++;
+					send(Request.GVU, "GVU");
+				}
+				break;
+			case "EOG":
+				if (sentAt[Request.GVU.ordinal()] != 0) {
+					answered(Request.GVU);
+					statistics.givenUp++;
+				}
+				gameOver();
+				break;
+			case "ERR":
+			case "ERS":
+				statistics.errors++;
+				// invitation refused by server (partner is still in previous game) - try again
+				if (inviting && sentAt[Request.RFP.ordinal()] != 0) {
+					sentAt[Request.RFP.ordinal()] = 0;
+					return true;
+				}
+				break;
+			default:
+				break;
+		}
+		return false;
+	}
+	
+	private void makeMove() throws IOException {
+		if (board == null || movesInGame >= maxMoves) {
+			// random games may never end (kings chasing each other)
+			send(Request.GVU, "GVU");
+			return;
+		}
+		movesInGame++;
+		StringBuilder packet = new StringBuilder("MOV");
+		// capture is mandatory - send the whole sequence (MJUMP extension)
+		capturePaths.generate(color, board, ANY_SOURCE);
+		if (!capturePaths.isEmpty()) {
+			int path = random.nextInt(capturePaths.size());
+			for (int i = 0; i < capturePaths.length(path); i++) {
+				appendSquare(packet, capturePaths.square(path, i));
+			}
+		} else {
+			generator.generateLegalMoves(color, board, ANY_SOURCE, moves);
+			if (moves.isEmpty()) {
+				send(Request.GVU, "GVU");
+				return;
+			}
+			int move = moves.get(random.nextInt(moves.size()));
+			appendSquare(packet, MoveList.from(move));
+			appendSquare(packet, MoveList.to(move));
+		}
+		send(Request.MOV, packet.toString());
+	}
+	
+	private void appendSquare(StringBuilder packet, int square) {
+		packet.append('#').append(Bitboards.squareX(square)).append('#').append(Bitboards.squareY(square));
+	}
+	
+	private void gameOver() throws IOException {
+		board = null;
+		gamesPlayed++;
+		if (inviting)
+			statistics.gamesFinished++;
+		if (gamesPlayed >= games) {
+			logOut();
+		} else if (inviting) {
+			send(Request.LSP, "LSP");
+		}
+	}
+	
+	private void logOut() throws IOException {
+		write("LGO");
+		finish();
+	}
+	
+	private void answered(Request request) {
+		long sent = sentAt[request.ordinal()];
+		if (sent != 0) {
+			statistics.latency(request, System.nanoTime() - sent);
+			sentAt[request.ordinal()] = 0;
+		}
+	}
+	
+	private void send(Request request, String packet) throws IOException {
+		sentAt[request.ordinal()] = System.nanoTime();
+		write(packet);
+	}
+	
+	private void write(String packet) throws IOException {
+		byte[] bytes = (packet + "\n").getBytes(StandardCharsets.US_ASCII);
+		if (output.remaining() < bytes.length) {
+			ByteBuffer bigger = ByteBuffer.allocate(Math.max(output.capacity() * 2, output.position() + bytes.length));
+			output.flip();
+			bigger.put(output);
+			output = bigger;
+		}
+		output.put(bytes);
+		write();
+		if (output.position() > 0 && key.isValid())
+			key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+	}
+}
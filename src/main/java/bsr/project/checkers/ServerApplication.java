@@ -1,7 +1,15 @@
 package bsr.project.checkers;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import bsr.project.checkers.client.ClientData;
+import bsr.project.checkers.client.MemoryTransport;
+import bsr.project.checkers.config.Configuration;
 import bsr.project.checkers.console.CommandLine;
 import bsr.project.checkers.controller.PacketsController;
+import bsr.project.checkers.dispatcher.EventDispatcher;
+import bsr.project.checkers.events.ServerCloseEvent;
 import bsr.project.checkers.logger.Logs;
 import bsr.project.checkers.server.ServerData;
 import bsr.project.checkers.server.ServerThread;
@@ -11,27 +19,85 @@ public class ServerApplication {
 	private ServerData serverData;
 	private ServerThread serverThread;
 	private PacketsController packetsController;
+	/** konfiguracja podana przy uruchomieniu w procesie lub null - odczyt z pliku */
+	private Configuration configuration;
 	
 	public ServerApplication(String[] args) {
 	}
 	
+	/**
+	 * serwer uruchamiany w procesie (testy wydajności) - {@link #start()}, {@link #connectInMemory()}, {@link #stop()}
+	 */
+	public ServerApplication(Configuration configuration) {
+		this.configuration = configuration;
+	}
+	
 	public void run() {
 		try {
-			Logs.debug("Starting server application...");
-			
-			serverData = new ServerData();
-			
-			packetsController = new PacketsController(serverData);
-			
-			serverThread = new ServerThread(serverData);
-			serverThread.start();
+			start();
 			
 			new CommandLine(serverData).readContinuously();
 			
 			serverThread.join();
 			
+			EventDispatcher.shutdown();
+			
 		} catch (Throwable e) {
 			Logs.error(e);
 		}
 	}
+	
+	/**
+	 * uruchamia serwer bez konsoli
+	 */
+	public void start() {
+		Logs.debug("Starting server application...");
+		
+		serverData = configuration != null ? new ServerData(configuration) : new ServerData();
+		
+		configureDispatcher(serverData.getConfiguration());
+		
+		packetsController = new PacketsController(serverData);
+		
+		serverThread = new ServerThread(serverData);
+		serverThread.start();
+	}
+	
+	/**
+	 * zamyka serwer i wszystkie połączenia klientów (serwer uruchomiony przez {@link #start()})
+	 */
+	public void stop() throws InterruptedException {
+		EventDispatcher.sendEvent(new ServerCloseEvent());
+		// to avoid concurrent modification
+		List<ClientData> shallowCopy = new ArrayList<>(serverData.getClients());
+		shallowCopy.forEach(clientData -> clientData.getClientConnection().close());
+		serverThread.join();
+		EventDispatcher.unregisterEventObserver(packetsController);
+		EventDispatcher.shutdown();
+	}
+	
+	/**
+	 * @return strona klienta nowego połączenia w pamięci procesu
+	 */
+	public MemoryTransport connectInMemory() {
+		return serverThread.connectInMemory();
+	}
+	
+	private void configureDispatcher(Configuration configuration) {
+		// fresh backend on every start - the previous one has been shut down by stop()
+		switch (configuration.getDispatchMode()) {
+			case ACTOR:
+				EventDispatcher.useActorMailboxes(configuration.getDispatcherWorkers());
+				Logs.debug("events will be dispatched by " + configuration.getDispatcherWorkers() + " mailbox workers");
+				break;
+			case RING:
+				EventDispatcher.useRingBuffer(configuration.getRingSize(), configuration.getRingWaitStrategy(), configuration.getRingBatchSize());
+				Logs.debug("events will be dispatched through ring buffer (wait strategy: " + configuration.getRingWaitStrategy() + ")");
+				break;
+			case SYNC:
+			default:
+				EventDispatcher.useSynchronous();
+				break;
+		}
+	}
 }
@@ -1,35 +1,57 @@
 package bsr.project.checkers.client;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
 import java.net.Socket;
 import java.net.SocketException;
+import java.util.concurrent.locks.ReentrantLock;
 
 import bsr.project.checkers.dispatcher.EventDispatcher;
 import bsr.project.checkers.events.PacketReceivedEvent;
 import bsr.project.checkers.logger.Logs;
+import bsr.project.checkers.protocol.ByteSequence;
+import bsr.project.checkers.protocol.FrameTooLongException;
+import bsr.project.checkers.protocol.IFrameHandler;
+import bsr.project.checkers.protocol.IOutboundPacket;
+import bsr.project.checkers.protocol.LineFramer;
+import bsr.project.checkers.protocol.OutboundBuffer;
 import bsr.project.checkers.server.ServerData;
 
-public class ClientConnectionThread extends Thread {
+/**
+ * połączenie z klientem obsługiwane blokującym I/O (gniazdo TCP lub potok w pamięci - {@link IClientTransport}),
+ * uruchamiane na osobnym wątku platformowym lub wirtualnym (zależnie od trybu połączeń)
+ */
+public class ClientConnectionThread implements Runnable, IClientConnection, IFrameHandler {
 	
-	private Socket clientSocket;
+	private IClientTransport transport;
 	private volatile boolean active = true;
-	InputStream is = null;
-	InputStreamReader isr = null;
-	BufferedReader in = null;
-	PrintWriter out = null;
+	/** strumienie zostały przygotowane - można wysyłać pakiety */
+	private boolean opened = false;
+	/**
+	 * blokada bufora wysyłanych pakietów i transportu - zamiast monitora obiektu,
+	 * bo wątek wirtualny zablokowany na zapisie w bloku synchronized (JDK 21-23) blokuje swój wątek nośny
+	 */
+	private final ReentrantLock outputLock = new ReentrantLock();
+	
+	private static final int READ_BUFFER_SIZE = 4096;
+	private static final int WRITE_BUFFER_SIZE = 256;
+	
+	private byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+	/** bufor, do którego zapisywane są wysyłane pakiety */
+	private final OutboundBuffer outBuffer = new OutboundBuffer(WRITE_BUFFER_SIZE);
+	private LineFramer framer;
 	
 	private ServerData serverData;
 	private ClientData clientData;
 	
 	public ClientConnectionThread(ServerData serverData, Socket clientSocket) {
-		this.clientSocket = clientSocket;
+		this(serverData, new SocketTransport(clientSocket));
+	}
+	
+	public ClientConnectionThread(ServerData serverData, IClientTransport transport) {
+		this.transport = transport;
 		this.serverData = serverData;
 		clientData = new ClientData(this);
+		framer = new LineFramer(serverData.getConfiguration().getMaxFrameLength());
 	}
 	
 	@Override
@@ -41,33 +63,33 @@ public class ClientConnectionThread extends Thread {
 		Logs.info("New client has been connected to server: " + getHostname());
 		
 		try {
-			is = clientSocket.getInputStream();
-			isr = new InputStreamReader(is);
-			in = new BufferedReader(isr);
-			out = new PrintWriter(new OutputStreamWriter(clientSocket.getOutputStream()));
+			outputLock.lock();
+			try {
+				transport.open();
+				opened = true;
+			} finally {
+				outputLock.unlock();
+			}
 			
 			while (active) {
-				String received = in.readLine();
+				int read = transport.read(readBuffer);
 				
-				if (received == null) {
+				if (read < 0) {
 					//end of the stream has been reached - client disconnected
 					close();
 					break;
 				} else {
-					
-					// split received message by line feeds
-					for (String line : received.split("\\r|\\n")) {
-						if (!line.isEmpty()) {
-							EventDispatcher.sendEvent(new PacketReceivedEvent(clientData, line));
-						}
-					}
-					
+					// split received data by line feeds
+					framer.feed(readBuffer, 0, read, this);
 				}
 				
 			}
 			
 		} catch (SocketException e) {
 			Logs.debug(e.getMessage());
+		} catch (FrameTooLongException e) {
+			Logs.warn(e.getMessage());
+			close();
 		} catch (Exception e) {
 			Logs.error(e);
 		}
@@ -76,42 +98,76 @@ public class ClientConnectionThread extends Thread {
 		serverData.removeClient(clientData);
 	}
 	
-	public synchronized boolean isActive() {
+	@Override
+	public void onFrame(ByteSequence frame) {
+		// frame is a view of the read buffer - it is handled before the buffer is reused only by synchronous dispatcher,
+		// otherwise the event gets its own copy, as it is dispatched later
+		ByteSequence received = EventDispatcher.isSynchronous() ? frame : frame.copy();
+		EventDispatcher.sendEvent(new PacketReceivedEvent(clientData, received));
+	}
+	
+	@Override
+	public boolean isActive() {
 		return active;
 	}
 	
-	public synchronized void close() {
-		if (active) {
-			try {
-				if (is != null)
-					is.close();
-				if (isr != null)
-					isr.close();
-				if (in != null)
-					in.close();
-				out.close();
-				clientSocket.close();
-				
-				active = false;
-				Logs.info("Client disconnected");
-			} catch (IOException e) {
-				Logs.error(e);
+	@Override
+	public void close() {
+		outputLock.lock();
+		try {
+			if (active) {
+				try {
+					transport.close();
+					
+					active = false;
+					outBuffer.clear();
+					Logs.info("Client disconnected");
+				} catch (IOException e) {
+					Logs.error(e);
+				}
+			} else {
+				Logs.info("connection has been already closed");
 			}
-		} else {
-			Logs.info("connection has been already closed");
+		} finally {
+			outputLock.unlock();
 		}
 	}
 	
-	public synchronized void sendLine(String line) {
-		if (!active)
-			throw new IllegalStateException("Client connection is no longer active");
-		if (out == null)
-			throw new IllegalStateException("No output stream");
-		out.println(line);
-		out.flush();
+	@Override
+	public void queuePacket(IOutboundPacket packet) {
+		outputLock.lock();
+		try {
+			if (!active)
+				throw new IllegalStateException("Client connection is no longer active");
+			if (!opened)
+				throw new IllegalStateException("No output stream");
+			outBuffer.writePacket(packet);
+		} finally {
+			outputLock.unlock();
+		}
 	}
 	
+	@Override
+	public void flush() {
+		outputLock.lock();
+		try {
+			if (!active || outBuffer.isEmpty())
+				return;
+			try {
+				transport.write(outBuffer.array(), 0, outBuffer.length());
+			} catch (IOException e) {
+				Logs.debug(e.getMessage());
+				close();
+			} finally {
+				outBuffer.clear();
+			}
+		} finally {
+			outputLock.unlock();
+		}
+	}
+	
+	@Override
 	public String getHostname() {
-		return clientSocket.getInetAddress().getHostName();
+		return transport.getHostname();
 	}
 }
\ No newline at end of file
@@ -1,28 +1,49 @@
 package bsr.project.checkers.client;
 
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import bsr.project.checkers.dispatcher.EventMailbox;
 import bsr.project.checkers.game.GameSession;
+import bsr.project.checkers.protocol.BoardDeltaState;
+import bsr.project.checkers.protocol.Capability;
 
 public class ClientData {
 	
-	private ClientConnectionThread clientConnection;
-	private ClientState state;
-	private String login = null;
+	private IClientConnection clientConnection;
+	/** stan zmieniany atomowo (porównaj i zamień) - odczyt zawsze widzi ostatnią wartość */
+	private final AtomicReference<ClientState> state = new AtomicReference<>(ClientState.NOT_LOGGED_IN);
+	private volatile String login = null;
 	private GameSession gameSession = null;
+	/** pakiety od klienta obsługiwane są po kolei */
+	private final EventMailbox mailbox = new EventMailbox();
+	/** rozszerzenia protokołu uzgodnione przy logowaniu */
+	private volatile Set<Capability> capabilities = EnumSet.noneOf(Capability.class);
+	/** plansza ostatnio wysłana do klienta (dla pakietów DCB) */
+	private final BoardDeltaState boardDeltaState = new BoardDeltaState();
 	
-	public ClientData(ClientConnectionThread clientConnection) {
+	public ClientData(IClientConnection clientConnection) {
 		this.clientConnection = clientConnection;
-		state = ClientState.NOT_LOGGED_IN;
 	}
 	
-	public synchronized void setState(ClientState state) {
-		this.state = state;
+	public void setState(ClientState state) {
+		this.state.set(state);
 	}
 	
-	public synchronized ClientState getState() {
-		return state;
+	public ClientState getState() {
+		return state.get();
 	}
 	
-	public ClientConnectionThread getClientConnection() {
+	/**
+	 * zmienia stan klienta tylko wtedy, gdy jest on równy oczekiwanemu
+	 * @return czy stan został zmieniony
+	 */
+	public boolean changeState(ClientState expected, ClientState state) {
+		return this.state.compareAndSet(expected, state);
+	}
+	
+	public IClientConnection getClientConnection() {
 		return clientConnection;
 	}
 	
@@ -38,7 +59,23 @@ public class ClientData {
 	 * @return czy gracz jest gotowy na nową grę
 	 */
 	public boolean isReadyForNewGame() {
-		return isConnected() && state == ClientState.LOGGED_IN;
+		return isConnected() && state.get() == ClientState.LOGGED_IN;
+	}
+	
+	public EventMailbox getMailbox() {
+		return mailbox;
+	}
+	
+	public boolean hasCapability(Capability capability) {
+		return capabilities.contains(capability);
+	}
+	
+	public void setCapabilities(Set<Capability> capabilities) {
+		this.capabilities = capabilities;
+	}
+	
+	public BoardDeltaState getBoardDeltaState() {
+		return boardDeltaState;
 	}
 	
 	public String getLogin() {
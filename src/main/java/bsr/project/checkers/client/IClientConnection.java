@@ -0,0 +1,27 @@
+package bsr.project.checkers.client;
+
+import bsr.project.checkers.protocol.IOutboundPacket;
+
+/**
+ * połączenie z klientem, niezależne od sposobu obsługi gniazda (wątek na połączenie lub NIO)
+ */
+public interface IClientConnection {
+	
+	boolean isActive();
+	
+	void close();
+	
+	/**
+	 * zapisuje pakiet do bufora wyjściowego połączenia - zostanie wysłany przy najbliższym {@link #flush()}
+	 * @throws IllegalStateException gdy połączenie nie jest już aktywne
+	 */
+	void queuePacket(IOutboundPacket packet);
+	
+	/**
+	 * wysyła wszystkie zbuforowane pakiety jednym zapisem do gniazda (w kolejności zapisania)
+	 */
+	void flush();
+	
+	String getHostname();
+	
+}
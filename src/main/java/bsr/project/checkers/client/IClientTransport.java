@@ -0,0 +1,28 @@
+package bsr.project.checkers.client;
+
+import java.io.IOException;
+
+/**
+ * przesyłanie bajtów połączenia obsługiwanego blokującym I/O ({@link ClientConnectionThread}),
+ * niezależne od nośnika (gniazdo TCP lub potok w pamięci procesu)
+ */
+public interface IClientTransport {
+	
+	/**
+	 * przygotowanie do przesyłania danych - wywoływane na wątku połączenia, przed pierwszym odczytem
+	 */
+	void open() throws IOException;
+	
+	/**
+	 * blokuje do czasu nadejścia danych
+	 * @return liczba odczytanych bajtów lub -1, jeśli druga strona zamknęła połączenie
+	 */
+	int read(byte[] buffer) throws IOException;
+	
+	void write(byte[] data, int offset, int length) throws IOException;
+	
+	void close() throws IOException;
+	
+	String getHostname();
+	
+}
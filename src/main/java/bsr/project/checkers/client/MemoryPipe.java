@@ -0,0 +1,68 @@
+package bsr.project.checkers.client;
+
+import java.io.IOException;
+
+/**
+ * jednokierunkowy potok bajtów w pamięci - bufor cykliczny powiększany w razie potrzeby,
+ * zapis nie blokuje, odczyt czeka na dane
+ */
+public class MemoryPipe {
+	
+	private static final int INITIAL_CAPACITY = 4096;
+	
+	private byte[] buffer = new byte[INITIAL_CAPACITY];
+	/** pozycja pierwszego nieodczytanego bajtu */
+	private int head = 0;
+	private int size = 0;
+	private boolean closed = false;
+	
+	public synchronized void write(byte[] data, int offset, int length) throws IOException {
+		if (closed)
+			throw new IOException("Pipe closed");
+		if (size + length > buffer.length)
+			grow(size + length);
+		int tail = (head + size) % buffer.length;
+		int first = Math.min(length, buffer.length - tail);
+		System.arraycopy(data, offset, buffer, tail, first);
+		System.arraycopy(data, offset + first, buffer, 0, length - first);
+		size += length;
+		notifyAll();
+	}
+	
+	/**
+	 * @return liczba odczytanych bajtów lub -1, jeśli potok został zamknięty i wszystkie dane zostały odczytane
+	 */
+	public synchronized int read(byte[] data, int offset, int length) throws IOException {
+		while (size == 0 && !closed) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while reading from pipe");
+			}
+		}
+		if (size == 0)
+			return -1;
+		int read = Math.min(length, size);
+		int first = Math.min(read, buffer.length - head);
+		System.arraycopy(buffer, head, data, offset, first);
+		System.arraycopy(buffer, 0, data, offset + first, read - first);
+		head = (head + read) % buffer.length;
+		size -= read;
+		return read;
+	}
+	
+	public synchronized void close() {
+		closed = true;
+		notifyAll();
+	}
+	
+	private void grow(int minCapacity) {
+		byte[] bigger = new byte[Math.max(minCapacity, buffer.length * 2)];
+		int first = Math.min(size, buffer.length - head);
+		System.arraycopy(buffer, head, bigger, 0, first);
+		System.arraycopy(buffer, 0, bigger, first, size - first);
+		buffer = bigger;
+		head = 0;
+	}
+}
@@ -0,0 +1,69 @@
+package bsr.project.checkers.client;
+
+import java.io.IOException;
+import java.net.SocketException;
+
+/**
+ * połączenie przez parę potoków w pamięci procesu - bez gniazd i jądra systemu
+ * (deterministyczne testy wydajności serwera uruchomionego w tym samym procesie);
+ * druga strona połączenia ({@link #getPeer()}) odczytuje to, co zapisuje ta strona i odwrotnie
+ */
+public class MemoryTransport implements IClientTransport {
+	
+	private final MemoryPipe input;
+	private final MemoryPipe output;
+	private final String hostname;
+	private final MemoryTransport peer;
+	private volatile boolean closed = false;
+	
+	public MemoryTransport(String hostname) {
+		this.input = new MemoryPipe();
+		this.output = new MemoryPipe();
+		this.hostname = hostname;
+		this.peer = new MemoryTransport(this);
+	}
+	
+	private MemoryTransport(MemoryTransport peer) {
+		this.input = peer.output;
+		this.output = peer.input;
+		this.hostname = peer.hostname;
+		this.peer = peer;
+	}
+	
+	/**
+	 * @return druga strona połączenia
+	 */
+	public MemoryTransport getPeer() {
+		return peer;
+	}
+	
+	@Override
+	public void open() {
+	}
+	
+	@Override
+	public int read(byte[] buffer) throws IOException {
+		int read = input.read(buffer, 0, buffer.length);
+		// closed by this side - the same as closed socket
+		if (read < 0 && closed)
+			throw new SocketException("Socket closed");
+		return read;
+	}
+	
+	@Override
+	public void write(byte[] data, int offset, int length) throws IOException {
+		output.write(data, offset, length);
+	}
+	
+	@Override
+	public void close() {
+		closed = true;
+		input.close();
+		output.close();
+	}
+	
+	@Override
+	public String getHostname() {
+		return hostname;
+	}
+}
@@ -0,0 +1,195 @@
+package bsr.project.checkers.client;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import bsr.project.checkers.dispatcher.EventDispatcher;
+import bsr.project.checkers.events.PacketReceivedEvent;
+import bsr.project.checkers.logger.Logs;
+import bsr.project.checkers.protocol.ByteSequence;
+import bsr.project.checkers.protocol.FrameTooLongException;
+import bsr.project.checkers.protocol.IFrameHandler;
+import bsr.project.checkers.protocol.IOutboundPacket;
+import bsr.project.checkers.protocol.LineFramer;
+import bsr.project.checkers.protocol.OutboundBuffer;
+import bsr.project.checkers.server.ServerData;
+
+/**
+ * połączenie z klientem obsługiwane przez pętlę zdarzeń NIO (bez własnego wątku),
+ * odczyt i zapis są nieblokujące
+ */
+public class NioClientConnection implements IClientConnection, IFrameHandler {
+	
+	private static final int READ_BUFFER_SIZE = 4096;
+	private static final int WRITE_BUFFER_SIZE = 256;
+	
+	private SocketChannel channel;
+	private SelectionKey key;
+	private volatile boolean active = true;
+	
+	private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+	private LineFramer framer;
+	/** bufor, do którego zapisywane są wysyłane pakiety */
+	private final OutboundBuffer outBuffer = new OutboundBuffer(WRITE_BUFFER_SIZE);
+	/** dane oczekujące na zapis, gdy gniazdo nie przyjęło ich od razu */
+	private final Queue<ByteBuffer> writeQueue = new ArrayDeque<>();
+	
+	private ServerData serverData;
+	private ClientData clientData;
+	private String hostname;
+	
+	public NioClientConnection(ServerData serverData, SocketChannel channel, SelectionKey key) {
+		this.serverData = serverData;
+		this.channel = channel;
+		this.key = key;
+		// no reverse DNS lookup - it would block the whole event loop
+		hostname = channel.socket().getInetAddress().getHostAddress();
+		clientData = new ClientData(this);
+		framer = new LineFramer(serverData.getConfiguration().getMaxFrameLength());
+	}
+	
+	/**
+	 * wywoływane przez pętlę zdarzeń po zarejestrowaniu kanału
+	 */
+	public void open() {
+		// adding new client
+		serverData.addClient(clientData);
+		
+		Logs.info("New client has been connected to server: " + getHostname());
+	}
+	
+	/**
+	 * wywoływane przez pętlę zdarzeń, gdy kanał ma dane do odczytu
+	 */
+	public void onReadable() {
+		try {
+			readBuffer.clear();
+			int read = channel.read(readBuffer);
+			if (read < 0) {
+				//end of the stream has been reached - client disconnected
+				close();
+				return;
+			}
+			
+			// split received data by line feeds
+			framer.feed(readBuffer.array(), 0, read, this);
+			
+		} catch (FrameTooLongException e) {
+			Logs.warn(e.getMessage());
+			close();
+		} catch (IOException e) {
+			Logs.debug(e.getMessage());
+			close();
+		}
+	}
+	
+	@Override
+	public void onFrame(ByteSequence frame) {
+		// frame is a view of the read buffer - it is handled before the buffer is reused only by synchronous dispatcher,
+		// otherwise the event gets its own copy, as it is dispatched later
+		ByteSequence received = EventDispatcher.isSynchronous() ? frame : frame.copy();
+		EventDispatcher.sendEvent(new PacketReceivedEvent(clientData, received));
+	}
+	
+	/**
+	 * wywoływane przez pętlę zdarzeń, gdy do kanału można znowu pisać
+	 */
+	public synchronized void onWritable() {
+		if (!active)
+			return;
+		try {
+			flushWriteQueue();
+		} catch (IOException e) {
+			Logs.debug(e.getMessage());
+			close();
+		}
+	}
+	
+	private void flushWriteQueue() throws IOException {
+		if (!writeQueue.isEmpty()) {
+			// gathering write of all pending buffers
+			channel.write(writeQueue.toArray(new ByteBuffer[writeQueue.size()]));
+			while (!writeQueue.isEmpty() && !writeQueue.peek().hasRemaining()) {
+				writeQueue.poll();
+			}
+			if (!writeQueue.isEmpty()) {
+				// socket send buffer is full - wait for OP_WRITE
+				key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+				key.selector().wakeup();
+				return;
+			}
+		}
+		key.interestOps(SelectionKey.OP_READ);
+	}
+	
+	@Override
+	public boolean isActive() {
+		return active;
+	}
+	
+	@Override
+	public synchronized void close() {
+		if (active) {
+			active = false;
+			try {
+				key.cancel();
+				channel.close();
+				Logs.info("Client disconnected");
+			} catch (IOException e) {
+				Logs.error(e);
+			}
+			writeQueue.clear();
+			outBuffer.clear();
+			// remove client from clients list
+			serverData.removeClient(clientData);
+		} else {
+			Logs.info("connection has been already closed");
+		}
+	}
+	
+	@Override
+	public synchronized void queuePacket(IOutboundPacket packet) {
+		if (!active)
+			throw new IllegalStateException("Client connection is no longer active");
+		outBuffer.writePacket(packet);
+	}
+	
+	@Override
+	public synchronized void flush() {
+		if (!active || outBuffer.isEmpty())
+			return;
+		try {
+			flushOutBuffer();
+		} catch (IOException e) {
+			Logs.debug(e.getMessage());
+			close();
+		}
+	}
+	
+	private void flushOutBuffer() throws IOException {
+		ByteBuffer data = ByteBuffer.wrap(outBuffer.array(), 0, outBuffer.length());
+		// try to write immediately, unless earlier data is still waiting for the socket
+		if (writeQueue.isEmpty()) {
+			channel.write(data);
+		}
+		if (data.hasRemaining()) {
+			// out buffer is reused - remaining data has to be copied, it is written when channel becomes writable
+			ByteBuffer pending = ByteBuffer.allocate(data.remaining());
+			pending.put(data);
+			pending.flip();
+			writeQueue.add(pending);
+			key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+			key.selector().wakeup();
+		}
+		outBuffer.clear();
+	}
+	
+	@Override
+	public String getHostname() {
+		return hostname;
+	}
+}
@@ -0,0 +1,51 @@
+package bsr.project.checkers.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+
+/**
+ * połączenie przez gniazdo TCP
+ */
+public class SocketTransport implements IClientTransport {
+	
+	private Socket socket;
+	private InputStream is = null;
+	private OutputStream out = null;
+	
+	public SocketTransport(Socket socket) {
+		this.socket = socket;
+	}
+	
+	@Override
+	public void open() throws IOException {
+		is = socket.getInputStream();
+		out = socket.getOutputStream();
+	}
+	
+	@Override
+	public int read(byte[] buffer) throws IOException {
+		return is.read(buffer);
+	}
+	
+	@Override
+	public void write(byte[] data, int offset, int length) throws IOException {
+		out.write(data, offset, length);
+		out.flush();
+	}
+	
+	@Override
+	public void close() throws IOException {
+		if (is != null)
+			is.close();
+		if (out != null)
+			out.close();
+		socket.close();
+	}
+	
+	@Override
+	public String getHostname() {
+		return socket.getInetAddress().getHostName();
+	}
+}
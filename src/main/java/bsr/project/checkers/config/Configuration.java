@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
 
+import bsr.project.checkers.dispatcher.WaitStrategy;
 import bsr.project.checkers.logger.Logs;
 
 public class Configuration {
@@ -13,10 +14,41 @@ public class Configuration {
 	
 	private int port = 4000;
 	
+	private ConnectionMode connectionMode = ConnectionMode.THREAD;
+	
+	/** maksymalna długość odebranej linii (pakietu) w bajtach */
+	private int maxFrameLength = 4096;
+	
+	/** liczba pętli zdarzeń (wątków z selektorem) w trybie NIO */
+	private int nioLoops = Runtime.getRuntime().availableProcessors();
+	
+	private DispatchMode dispatchMode = DispatchMode.SYNC;
+	
+	/** liczba wątków opróżniających skrzynki zdarzeń w trybie ACTOR */
+	private int dispatcherWorkers = Runtime.getRuntime().availableProcessors();
+	
+	/** parametry bufora cyklicznego w trybie RING */
+	private int ringSize = 4096;
+	private WaitStrategy ringWaitStrategy = WaitStrategy.PARK;
+	private int ringBatchSize = 256;
+	
+	/** liczba pozycji we wspólnej pamięci dozwolonych ruchów (0 - wyłączona) */
+	private int moveCacheSize = 32768;
+	
+	/** plik z kontami użytkowników */
+	private String usersFile = "accounts.properties";
+	
 	public Configuration() {
 		loadConfig();
 	}
 	
+	/**
+	 * konfiguracja z podanych właściwości, bez odczytu pliku (serwer uruchamiany w procesie testów wydajności)
+	 */
+	public Configuration(Properties prop) {
+		applyProperties(prop);
+	}
+	
 	public void loadConfig() {
 		Logs.debug("loading configuration from file " + CONFIG_FILE + "...");
 		
@@ -25,14 +57,7 @@ public class Configuration {
 		try {
 			input = new FileInputStream(CONFIG_FILE);
 			prop.load(input);
-			
-			String portStr = prop.getProperty("port");
-			try {
-				port = Integer.parseInt(portStr);
-			} catch (NumberFormatException e) {
-				Logs.error("invalid port number format");
-			}
-			
+			applyProperties(prop);
 		} catch (IOException ex) {
 			Logs.error(ex);
 		} finally {
@@ -46,8 +71,124 @@ public class Configuration {
 		}
 	}
 	
+	private void applyProperties(Properties prop) {
+		port = getIntProperty(prop, "port", port);
+		
+		maxFrameLength = getIntProperty(prop, "protocol.frame.max", maxFrameLength);
+		if (maxFrameLength < 1) {
+			Logs.error("invalid maximum frame length: " + maxFrameLength);
+			maxFrameLength = 4096;
+		}
+		
+		connectionMode = getEnumProperty(prop, "connection.mode", ConnectionMode.class, connectionMode);
+		
+		nioLoops = getIntProperty(prop, "nio.loops", nioLoops);
+		if (nioLoops < 1) {
+			Logs.error("invalid number of NIO loops: " + nioLoops);
+			nioLoops = 1;
+		}
+		
+		dispatchMode = getEnumProperty(prop, "dispatcher.mode", DispatchMode.class, dispatchMode);
+		
+		dispatcherWorkers = getIntProperty(prop, "dispatcher.workers", dispatcherWorkers);
+		if (dispatcherWorkers < 1) {
+			Logs.error("invalid number of dispatcher workers: " + dispatcherWorkers);
+			dispatcherWorkers = 1;
+		}
+		
+		ringSize = getIntProperty(prop, "dispatcher.ring.size", ringSize);
+		if (ringSize < 2) {
+			Logs.error("invalid dispatcher ring buffer size: " + ringSize);
+			ringSize = 2;
+		}
+		ringWaitStrategy = getEnumProperty(prop, "dispatcher.ring.wait", WaitStrategy.class, ringWaitStrategy);
+		ringBatchSize = getIntProperty(prop, "dispatcher.ring.batch", ringBatchSize);
+		if (ringBatchSize < 1) {
+			Logs.error("invalid dispatcher ring batch size: " + ringBatchSize);
+			ringBatchSize = 1;
+		}
+		
+		moveCacheSize = getIntProperty(prop, "game.movecache.size", moveCacheSize);
+		if (moveCacheSize < 0) {
+			Logs.error("invalid move cache size: " + moveCacheSize);
+			moveCacheSize = 0;
+		}
+		
+		usersFile = prop.getProperty("users.file", usersFile).trim();
+	}
+	
+	/**
+	 * @return wartość liczbowa właściwości lub wartość domyślna, jeśli nie została podana
+	 */
+	private int getIntProperty(Properties prop, String key, int defaultValue) {
+		String valueStr = prop.getProperty(key);
+		if (valueStr == null)
+			return defaultValue;
+		try {
+			return Integer.parseInt(valueStr.trim());
+		} catch (NumberFormatException e) {
+			Logs.error("invalid " + key + " number format");
+			return defaultValue;
+		}
+	}
+	
+	/**
+	 * @return wartość wyliczeniowa właściwości (wielkość liter nie ma znaczenia) lub wartość domyślna
+	 */
+	private <E extends Enum<E>> E getEnumProperty(Properties prop, String key, Class<E> enumClass, E defaultValue) {
+		String valueStr = prop.getProperty(key);
+		if (valueStr == null)
+			return defaultValue;
+		try {
+			return Enum.valueOf(enumClass, valueStr.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			Logs.error("invalid " + key + " value: " + valueStr);
+			return defaultValue;
+		}
+	}
+	
 	public int getPort() {
 		return port;
 	}
 	
-}
\ No newline at end of file
+	public int getMaxFrameLength() {
+		return maxFrameLength;
+	}
+	
+	public ConnectionMode getConnectionMode() {
+		return connectionMode;
+	}
+	
+	public int getNioLoops() {
+		return nioLoops;
+	}
+	
+	public DispatchMode getDispatchMode() {
+		return dispatchMode;
+	}
+	
+	public int getDispatcherWorkers() {
+		return dispatcherWorkers;
+	}
+	
+	public int getRingSize() {
+		return ringSize;
+	}
+	
+	public WaitStrategy getRingWaitStrategy() {
+		return ringWaitStrategy;
+	}
+	
+	public int getRingBatchSize() {
+		return ringBatchSize;
+	}
+	
+	public int getMoveCacheSize() {
+		return moveCacheSize;
+	}
+	
+	public String getUsersFile() {
+		return usersFile;
+	}
+	
+}
@@ -0,0 +1,17 @@
+package bsr.project.checkers.config;
+
+public enum ConnectionMode {
+	
+	/** osobny wątek na każde połączenie klienta (blokujące I/O) */
+	THREAD,
+	
+	/** wątek wirtualny na każde połączenie klienta (wymaga Java 21+) */
+	VIRTUAL,
+	
+	/** nieblokujące I/O - kilka pętli zdarzeń opartych na java.nio.channels.Selector */
+	NIO,
+	
+	/** bez nasłuchiwania na porcie - tylko połączenia w pamięci procesu (testy wydajności serwera uruchomionego w procesie) */
+	MEMORY
+	
+}
@@ -0,0 +1,14 @@
+package bsr.project.checkers.config;
+
+public enum DispatchMode {
+	
+	/** zdarzenia obsługiwane kolejno na wątku nadawcy, jedna globalna kolejka */
+	SYNC,
+	
+	/** osobna skrzynka zdarzeń dla każdego klienta, skrzynki opróżniane przez pulę wątków */
+	ACTOR,
+	
+	/** bezblokadowy bufor cykliczny (wielu producentów, jeden konsument) obsługiwany przez jeden wątek */
+	RING
+	
+}
@@ -9,12 +9,17 @@ import bsr.project.checkers.dispatcher.EventDispatcher;
 import bsr.project.checkers.events.ServerCloseEvent;
 import bsr.project.checkers.game.Board;
 import bsr.project.checkers.game.GameSession;
+import bsr.project.checkers.game.validator.LegalMovesCache;
+import bsr.project.checkers.game.validator.Perft;
 import bsr.project.checkers.logger.Logs;
+import bsr.project.checkers.protocol.BoardSymbols;
 import bsr.project.checkers.server.ServerData;
 import bsr.project.checkers.users.User;
 
 public class CommandLine {
 	
+	private static final int PERFT_MAX_DEPTH = 14;
+	
 	private boolean exit = false;
 	private ServerData serverData;
 	
@@ -74,14 +79,18 @@ public class CommandLine {
 				sb.append(game.getPlayer2().getLogin());
 				sb.append(", current Player: ");
 				sb.append(game.getCurrentPlayer().getLogin());
+				Board board = game.getBoard();
+				sb.append(", pieces (pawns + kings): white ");
+				sb.append(board.getPawnCount(BoardSymbols.WHITE_PAWN)).append(" + ").append(board.getKingCount(BoardSymbols.WHITE_PAWN));
+				sb.append(", black ");
+				sb.append(board.getPawnCount(BoardSymbols.BLACK_PAWN)).append(" + ").append(board.getKingCount(BoardSymbols.BLACK_PAWN));
 				sb.append(", current board:");
 				Logs.info(sb.toString());
 				
-				char[][] map = game.getBoard().getMap();
 				for (int y = 0; y < Board.BOARD_SIZE; y++) {
 					StringBuilder sb2 = new StringBuilder();
 					for (int x = 0; x < Board.BOARD_SIZE; x++) {
-						sb2.append(map[x][y]);
+						sb2.append(board.getCell(x, y));
 					}
 					Logs.info(sb2.toString());
 				}
@@ -101,6 +110,44 @@ public class CommandLine {
 				
 				number++;
 			}
+		} else if (cmd.equals("cache")) {
+			LegalMovesCache cache = serverData.getMovesCache();
+			if (cache == null) {
+				Logs.info("Legal moves cache is disabled");
+			} else {
+				Logs.info("Legal moves cache: " + cache.size() + " / " + cache.getCapacity() + " positions, hits: " + cache.getHits()
+						+ ", misses: " + cache.getMisses() + ", hit rate: " + String.format("%.1f%%", cache.getHitRate() * 100)
+						+ ", evictions: " + cache.getEvictions());
+			}
+		} else if (cmd.equals("perft check")) {
+			long start = System.nanoTime();
+			String error = new Perft(PERFT_MAX_DEPTH).check();
+			long millis = (System.nanoTime() - start) / 1000000;
+			if (error == null) {
+				Logs.info("Perft check passed (" + millis + " ms)");
+			} else {
+				Logs.error("Perft check failed: " + error);
+			}
+		} else if (cmd.startsWith("perft ")) {
+			int depth;
+			try {
+				depth = Integer.parseInt(cmd.substring("perft ".length()).trim());
+			} catch (NumberFormatException e) {
+				Logs.warn("invalid perft depth: " + cmd);
+				return;
+			}
+			if (depth < 1 || depth > PERFT_MAX_DEPTH) {
+				Logs.warn("perft depth must be between 1 and " + PERFT_MAX_DEPTH);
+				return;
+			}
+			Perft perft = new Perft(depth);
+			Board board = new Board();
+			for (int d = 1; d <= depth; d++) {
+				long start = System.nanoTime();
+				long nodes = perft.perft(board, BoardSymbols.WHITE_PAWN, d);
+				long nanos = Math.max(1, System.nanoTime() - start);
+				Logs.info("perft(" + d + ") = " + nodes + ", " + nanos / 1000000 + " ms, " + nodes * 1000000000L / nanos + " nodes/s");
+			}
 		} else if (cmd.equals("kick all")) {
 			disconnectAll();
 		} else {
@@ -115,6 +162,9 @@ public class CommandLine {
 		Logs.info("clients - list connected clients");
 		Logs.info("games - list active game sessions");
 		Logs.info("users - list registered users");
+		Logs.info("cache - show legal moves cache statistics");
+		Logs.info("perft <depth> - count positions reachable from the initial board (move generator speed)");
+		Logs.info("perft check - verify move generator against reference positions");
 		Logs.info("kick all - close all client connections");
 	}
 	
@@ -1,11 +1,13 @@
 package bsr.project.checkers.controller;
 
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 
-import bsr.project.checkers.client.ClientConnectionThread;
 import bsr.project.checkers.client.ClientData;
 import bsr.project.checkers.client.ClientState;
+import bsr.project.checkers.client.IClientConnection;
 import bsr.project.checkers.dispatcher.AbstractEvent;
 import bsr.project.checkers.dispatcher.EventDispatcher;
 import bsr.project.checkers.dispatcher.IEventObserver;
@@ -17,8 +19,15 @@ import bsr.project.checkers.game.Point;
 import bsr.project.checkers.game.validator.InvalidMoveException;
 import bsr.project.checkers.logger.Logs;
 import bsr.project.checkers.protocol.BoardSymbols;
+import bsr.project.checkers.protocol.Capability;
+import bsr.project.checkers.protocol.CredentialsPacket;
+import bsr.project.checkers.protocol.DecisionPacket;
+import bsr.project.checkers.protocol.IOutboundPacket;
+import bsr.project.checkers.protocol.MessagePacket;
+import bsr.project.checkers.protocol.MovePacket;
 import bsr.project.checkers.protocol.PacketsBuilder;
 import bsr.project.checkers.protocol.PacketsParser;
+import bsr.project.checkers.protocol.PlayerPacket;
 import bsr.project.checkers.protocol.ProtocolPacket;
 import bsr.project.checkers.server.ServerData;
 import bsr.project.checkers.users.UsersDatabase;
@@ -30,6 +39,8 @@ public class PacketsController implements IEventObserver {
 	private ServerData serverData;
 	private PacketsParser parser;
 	private PacketsBuilder builder;
+	/** połączenia z pakietami zbuforowanymi podczas obsługi bieżącego zdarzenia (zdarzenia mogą być obsługiwane równolegle) */
+	private final ThreadLocal<List<IClientConnection>> pendingFlushes = ThreadLocal.withInitial(ArrayList::new);
 	
 	public PacketsController(ServerData serverData) {
 		this.serverData = serverData;
@@ -49,31 +60,55 @@ public class PacketsController implements IEventObserver {
 		event.bind(PacketReceivedEvent.class, e -> packetReceived(e.getClientData(), e.getReceived()));
 	}
 	
-	private void sendPacket(ClientData client, String packetStr) {
+	/**
+	 * pakiet jest tylko buforowany - wszystkie pakiety wygenerowane podczas obsługi jednego odebranego pakietu
+	 * wysyłane są razem, po jednym zapisie na połączenie
+	 */
+	private void sendPacket(ClientData client, IOutboundPacket packet) {
 		try {
-			ClientConnectionThread clientConnection = client.getClientConnection();
-			clientConnection.sendLine(packetStr);
+			IClientConnection clientConnection = client.getClientConnection();
+			clientConnection.queuePacket(packet);
+			List<IClientConnection> connections = pendingFlushes.get();
+			if (!connections.contains(clientConnection))
+				connections.add(clientConnection);
 		} catch (IllegalStateException e) {
 			Logs.error(e.getMessage());
 		}
 	}
 	
-	private void packetReceived(ClientData client, String received) {
+	private void flushPendingPackets() {
+		List<IClientConnection> connections = pendingFlushes.get();
+		for (IClientConnection connection : connections) {
+			connection.flush();
+		}
+		connections.clear();
+	}
+	
+	private void packetReceived(ClientData client, CharSequence received) {
+		try {
+			handlePacket(client, received);
+		} finally {
+			flushPendingPackets();
+		}
+	}
+	
+	private void handlePacket(ClientData client, CharSequence received) {
 		
 		// Logs.debug("packet received from " + client.getHostname() + ": " + received);
 		
 		try {
-			ProtocolPacket packet = parser.parsePacket(received);
+			ProtocolPacket packet = parser.parsePacket(received, client.hasCapability(Capability.MULTI_JUMP));
 			switch (packet.getType()) {
 				case LOG_IN: {
 					checkState(client, ClientState.NOT_LOGGED_IN);
-					boolean result = tryLogIn(client, packet);
-					sendPacket(client, builder.responseLogin(result));
+					CredentialsPacket credentials = (CredentialsPacket) packet;
+					boolean result = tryLogIn(client, credentials);
+					sendPacket(client, builder.responseLogin(result, credentials.getCapabilities()));
 				}
 				break;
 				case CREATE_ACCOUNT: {
 					checkState(client, ClientState.NOT_LOGGED_IN);
-					boolean result = createAccount(client, packet);
+					boolean result = createAccount(client, (CredentialsPacket) packet);
 					sendPacket(client, builder.responseCreateAccount(result));
 				}
 				break;
@@ -89,12 +124,12 @@ public class PacketsController implements IEventObserver {
 				break;
 				case CREATE_REQUEST_FOR_GAME: {
 					checkState(client, ClientState.LOGGED_IN);
-					createInvitation(client, packet);
+					createInvitation(client, (PlayerPacket) packet);
 				}
 				break;
 				case INVITATION_FOR_GAME: {
 					checkState(client, ClientState.GAME_REQUEST);
-					receivedInvitationResponse(client, packet);
+					receivedInvitationResponse(client, (DecisionPacket) packet);
 				}
 				break;
 				case GIVE_UP: {
@@ -104,16 +139,21 @@ public class PacketsController implements IEventObserver {
 				break;
 				case MAKE_MOVE: {
 					checkState(client, ClientState.PLAYING_GAME);
-					makeMove(client, packet);
+					makeMove(client, (MovePacket) packet);
+				}
+				break;
+				case RESYNC_BOARD: {
+					checkState(client, ClientState.PLAYING_GAME);
+					resyncBoard(client);
 				}
 				break;
 				case ERROR: {
-					String message = packet.getParameter(0, String.class);
+					String message = ((MessagePacket) packet).getMessage();
 					Logs.error("Protocol error received: " + message);
 				}
 				break;
 				case INVALID_STATE: {
-					String message = packet.getParameter(0, String.class);
+					String message = ((MessagePacket) packet).getMessage();
 					Logs.error("State error received: " + message);
 				}
 				break;
@@ -148,9 +188,9 @@ public class PacketsController implements IEventObserver {
 	}
 	
 	
-	private boolean createAccount(ClientData client, ProtocolPacket packet) {
-		String login = packet.getParameter(0, String.class);
-		String password = packet.getParameter(1, String.class);
+	private boolean createAccount(ClientData client, CredentialsPacket packet) {
+		String login = packet.getLogin();
+		String password = packet.getPassword();
 		
 		UsersDatabase userDb = serverData.getUsersDatabase();
 		
@@ -171,9 +211,9 @@ public class PacketsController implements IEventObserver {
 		return true;
 	}
 	
-	private boolean tryLogIn(ClientData client, ProtocolPacket packet) {
-		String login = packet.getParameter(0, String.class);
-		String password = packet.getParameter(1, String.class);
+	private boolean tryLogIn(ClientData client, CredentialsPacket packet) {
+		String login = packet.getLogin();
+		String password = packet.getPassword();
 		
 		UsersDatabase userDb = serverData.getUsersDatabase();
 		
@@ -185,14 +225,14 @@ public class PacketsController implements IEventObserver {
 			Logs.warn("Given password is not correct");
 			return false;
 		}
-		// check if already logged in
-		if (serverData.findLoggedClient(login) != null) {
+		// check if already logged in and take the login
+		if (!serverData.logIn(client, login)) {
 			Logs.warn("User " + login + " is already logged in");
 			return false;
 		}
 		
 		client.setState(ClientState.LOGGED_IN);
-		client.setLogin(login);
+		client.setCapabilities(packet.getCapabilities());
 		
 		Logs.info("User " + login + " logged in.");
 		return true;
@@ -201,16 +241,16 @@ public class PacketsController implements IEventObserver {
 	private void logOut(ClientData client) {
 		Logs.info("User " + client.getLogin() + " logged out.");
 		client.setState(ClientState.NOT_LOGGED_IN);
-		client.setLogin(null);
+		serverData.logOut(client);
+		client.setCapabilities(EnumSet.noneOf(Capability.class));
 	}
 	
 	private void listPlayers(ClientData client) {
-		List<ClientData> clients = serverData.getClients();
-		sendPacket(client, builder.responseListPlayers(clients));
+		sendPacket(client, builder.responseListPlayers(serverData.getClients()));
 	}
 	
-	private void createInvitation(ClientData client, ProtocolPacket packet) throws ProtocolErrorException {
-		String foreignLogin = packet.getParameter(0, String.class);
+	private void createInvitation(ClientData client, PlayerPacket packet) throws ProtocolErrorException {
+		String foreignLogin = packet.getLogin();
 		
 		ClientData foreignClient = serverData.findLoggedClient(foreignLogin);
 		
@@ -223,27 +263,36 @@ public class PacketsController implements IEventObserver {
 		if (foreignClient == client)
 			throw new ProtocolErrorException("Cannot invite yourself!");
 		
-		if (foreignClient.getState() != ClientState.LOGGED_IN)
-			throw new ProtocolErrorException("Requested client is not waiting for invitations");
-		
 		if (serverData.findInvitation(foreignClient) != null)
 			throw new ProtocolErrorException("Requested client is already invited");
 		
+		// change players states (atomically - other clients may be sending invitations at the same time)
+		if (!client.changeState(ClientState.LOGGED_IN, ClientState.WAITING_FOR_ACCEPT))
+			throw new ProtocolErrorException("Player is already invited");
+		if (!foreignClient.changeState(ClientState.LOGGED_IN, ClientState.GAME_REQUEST)) {
+			client.setState(ClientState.LOGGED_IN);
+			throw new ProtocolErrorException("Requested client is not waiting for invitations");
+		}
+		
 		// remember new invitation
-		serverData.getInvitations().add(new GameInvitation(client, foreignClient));
+		if (!serverData.addInvitation(new GameInvitation(client, foreignClient))) {
+			// invited player has disconnected in the meantime
+			client.setState(ClientState.LOGGED_IN);
+			foreignClient.setState(ClientState.LOGGED_IN);
+			Logs.warn("User " + foreignLogin + " has disconnected");
+			sendPacket(client, builder.responseCreateRequestForGame(false));
+			return;
+		}
 		// send result to inviting user
 		sendPacket(client, builder.responseCreateRequestForGame(true));
 		// send INVITATION_FOR_GAME to another user
 		sendPacket(foreignClient, builder.requestInvitationForGame(client.getLogin()));
-		// change players states
-		client.setState(ClientState.WAITING_FOR_ACCEPT);
-		foreignClient.setState(ClientState.GAME_REQUEST);
 		
 		Logs.info("Invitation has been created: " + client.getLogin() + " -> " + foreignClient.getLogin());
 	}
 	
-	private void receivedInvitationResponse(ClientData client, ProtocolPacket packet) throws ProtocolErrorException {
-		Boolean agreed = packet.getParameter(0, Boolean.class);
+	private void receivedInvitationResponse(ClientData client, DecisionPacket packet) throws ProtocolErrorException {
+		boolean agreed = packet.isAgreed();
 		
 		GameInvitation invitation = serverData.findInvitation(client);
 		
@@ -253,103 +302,151 @@ public class PacketsController implements IEventObserver {
 		// remove invitation from list
 		serverData.removeInvitation(invitation);
 		
-		// sending response for inviting player
-		sendPacket(invitation.sender, builder.requestResponseForInvitation(agreed));
-		
 		Logs.info("Received response for invitation from player " + client + ": " + agreed);
 		
 		if (agreed) {
 			newGame(invitation.sender, invitation.receiver);
 		} else {
+			// sending response for inviting player
+			sendPacket(invitation.sender, builder.requestResponseForInvitation(false));
 			invitation.sender.setState(ClientState.LOGGED_IN);
 			invitation.receiver.setState(ClientState.LOGGED_IN);
 		}
 	}
 	
-	private void newGame(ClientData player1, ClientData player2) {
+	private void newGame(ClientData player1, ClientData player2) throws ProtocolErrorException {
 		Logs.info("Creating new game session: " + player1 + " vs " + player2);
 		// create new game
-		GameSession game = new GameSession(player1, player2);
-		serverData.addGame(game);
-		// change players states
-		player1.setState(ClientState.PLAYING_GAME);
-		player2.setState(ClientState.PLAYING_GAME);
-		// send new game messages
-		sendPacket(player1, builder.requestNewGame(BoardSymbols.WHITE_PAWN));
-		sendPacket(player2, builder.requestNewGame(BoardSymbols.BLACK_PAWN));
-		// send board to players
-		sendBoards(game);
-		// send your move message to White player
-		sendPacket(game.getCurrentPlayer(), builder.requestYourMove());
+		GameSession game = new GameSession(player1, player2, serverData.getMovesCache());
+		if (!serverData.addGame(game)) {
+			// inviting player has disconnected in the meantime
+			player1.setState(ClientState.LOGGED_IN);
+			player2.setState(ClientState.LOGGED_IN);
+			throw new ProtocolErrorException("Inviting player has disconnected");
+		}
+		// sending response for inviting player
+		sendPacket(player1, builder.requestResponseForInvitation(true));
+		// game is already published - packets of player1 may be handled at the same time
+		synchronized (game) {
+			// new board has to be sent in full to delta clients
+			player1.getBoardDeltaState().reset();
+			player2.getBoardDeltaState().reset();
+			// change players states
+			player1.setState(ClientState.PLAYING_GAME);
+			player2.setState(ClientState.PLAYING_GAME);
+			// send new game messages
+			sendPacket(player1, builder.requestNewGame(BoardSymbols.WHITE_PAWN));
+			sendPacket(player2, builder.requestNewGame(BoardSymbols.BLACK_PAWN));
+			// send board to players
+			sendBoards(game);
+			// send your move message to White player
+			sendPacket(game.getCurrentPlayer(), builder.requestYourMove());
+		}
 	}
 	
-	private void makeMove(ClientData player, ProtocolPacket packet) throws ProtocolErrorException {
+	private void makeMove(ClientData player, MovePacket packet) throws ProtocolErrorException {
 		GameSession game = serverData.findGame(player);
 		if (game == null)
 			throw new ProtocolErrorException("game session with player was not found");
 		
-		if (game.getCurrentPlayer() != player)
-			throw new ProtocolErrorException("wait for your turn!");
-		
-		Point from = packet.getParameter(0, Point.class);
-		Point to = packet.getParameter(1, Point.class);
-		
-		// validate move
-		try {
-			// if valid - make move
-			game.executeMove(player, from, to);
-		} catch (InvalidMoveException e) {
-			// if move is not valid - send response with false
-			sendPacket(player, builder.responseMakeMove(false));
-			Logs.warn("Invalid move: " + e.getMessage());
-			return;
-		}
-		// move has been executed successfully
-		sendPacket(player, builder.responseMakeMove(true));
-		// update new board state
-		sendBoards(game);
-
-		// check if any next move is possible to make by next player
-		if (!game.isAnyMovePossible()) {
-			// send gameover message and exit
-			gameOver(game, game.getOpponent(game.getCurrentPlayer()), "No move is possible to make by next player");
-			return;
-		}
-		
-		// check if game is over
-		ClientData winner = game.getWinner();
-		if (winner != null) {
-			// send gameover message and exit
-			gameOver(game, winner, "Player " + winner + " beat all opponent's pawns");
-			return;
+		// packets of both players may be handled at the same time
+		synchronized (game) {
+			if (game.isFinished())
+				throw new ProtocolErrorException("game is already over");
+			
+			if (game.getCurrentPlayer() != player)
+				throw new ProtocolErrorException("wait for your turn!");
+			
+			// clients without the multi-jump extension send single moves (extra coordinates are ignored)
+			int pointCount = player.hasCapability(Capability.MULTI_JUMP) ? packet.getPointCount() : 2;
+			Point[] path = new Point[pointCount];
+			for (int i = 0; i < pointCount; i++) {
+				path[i] = Point.of(packet.getX(i), packet.getY(i));
+			}
+			
+			// validate move
+			try {
+				// if valid - make move (whole capture sequence at once)
+				game.executeMoveSequence(player, path);
+			} catch (InvalidMoveException e) {
+				// if move is not valid - send response with false
+				sendPacket(player, builder.responseMakeMove(false));
+				Logs.warn("Invalid move: " + e.getMessage());
+				return;
+			}
+			// move has been executed successfully
+			sendPacket(player, builder.responseMakeMove(true));
+			// update new board state
+			sendBoards(game);
+			
+			// check if any next move is possible to make by next player
+			if (!game.isAnyMovePossible()) {
+				// send gameover message and exit
+				gameOver(game, game.getOpponent(game.getCurrentPlayer()), "No move is possible to make by next player");
+				return;
+			}
+			
+			// check if game is over
+			ClientData winner = game.getWinner();
+			if (winner != null) {
+				// send gameover message and exit
+				gameOver(game, winner, "Player " + winner + " beat all opponent's pawns");
+				return;
+			}
+			
+			// check whose move is next, send Your Move message
+			ClientData currentPlayer = game.getCurrentPlayer();
+			sendPacket(currentPlayer, builder.requestYourMove());
 		}
-		
-		// check whose move is next, send Your Move message
-		ClientData currentPlayer = game.getCurrentPlayer();
-		sendPacket(currentPlayer, builder.requestYourMove());
 	}
 	
 	private void sendBoards(GameSession game) {
-		sendPacket(game.getPlayer1(), builder.requestChangedBoard(game.getBoard()));
-		sendPacket(game.getPlayer2(), builder.requestChangedBoard(game.getBoard()));
+		sendBoard(game.getPlayer1(), game.getBoard());
+		sendBoard(game.getPlayer2(), game.getBoard());
 		
 		if (DEBUG_BOARD) {
 			Logs.debug("Current board:");
 			Logs.debug(" |01234567|");
 			Logs.debug("-+--------+");
-			char[][] map = game.getBoard().getMap();
+			Board board = game.getBoard();
 			for (int y = 0; y < Board.BOARD_SIZE; y++) {
 				StringBuilder sb = new StringBuilder();
 				sb.append(y);
 				sb.append("|");
 				for (int x = 0; x < Board.BOARD_SIZE; x++) {
-					sb.append(map[x][y] == BoardSymbols.EMPTY ? " " : map[x][y]);
+					char cell = board.getCell(x, y);
+					sb.append(cell == BoardSymbols.EMPTY ? ' ' : cell);
 				}
 				sb.append("|");
 				Logs.debug(sb.toString());
 			}
 			Logs.debug("-+--------+");
 		}
+		// full recount of the pieces only with assertions enabled (java -ea), counters are updated incrementally
+		assert game.getBoard().verifyCounters() == null : game.getBoard().verifyCounters();
+	}
+	
+	private void sendBoard(ClientData player, Board board) {
+		if (player.hasCapability(Capability.DELTA_BOARD)) {
+			sendPacket(player, builder.requestBoardUpdate(player.getBoardDeltaState(), board));
+		} else {
+			sendPacket(player, builder.requestChangedBoard(board));
+		}
+	}
+	
+	private void resyncBoard(ClientData client) throws ProtocolErrorException {
+		GameSession game = serverData.findGame(client);
+		if (game == null)
+			throw new ProtocolErrorException("game session with player was not found");
+		
+		synchronized (game) {
+			if (game.isFinished())
+				throw new ProtocolErrorException("game is already over");
+			// forget the board known by client - full board is sent
+			client.getBoardDeltaState().reset();
+			sendBoard(client, game.getBoard());
+		}
+		Logs.debug("Board resynchronized for player " + client);
 	}
 	
 	private void giveUpGame(ClientData client) throws ProtocolErrorException {
@@ -357,19 +454,26 @@ public class PacketsController implements IEventObserver {
 		if (game == null)
 			throw new ProtocolErrorException("game session with player was not found");
 		
-		ClientData opponent = game.getOpponent(client);
-		gameOver(game, opponent, "Player " + client + " gave up");
+		synchronized (game) {
+			if (game.isFinished())
+				throw new ProtocolErrorException("game is already over");
+			
+			ClientData opponent = game.getOpponent(client);
+			gameOver(game, opponent, "Player " + client + " gave up");
+		}
 	}
 	
 	private void gameOver(GameSession game, ClientData winner, String reason) {
+		game.finish();
 		ClientData player1 = game.getPlayer1();
 		ClientData player2 = game.getPlayer2();
 		
 		player1.setState(ClientState.LOGGED_IN);
 		player2.setState(ClientState.LOGGED_IN);
 		
-		sendPacket(player1, builder.requestGameOver(winner.getLogin(), reason));
-		sendPacket(player2, builder.requestGameOver(winner.getLogin(), reason));
+		IOutboundPacket gameOverPacket = builder.requestGameOver(winner.getLogin(), reason);
+		sendPacket(player1, gameOverPacket);
+		sendPacket(player2, gameOverPacket);
 		
 		serverData.removeGame(game);
 		Logs.info("Game session " + player1 + " vs " + player2 + " has been terminated, winner: " + winner + ", reason: " + reason);
@@ -12,9 +12,18 @@ public abstract class AbstractEvent {
 	 */
 	@SuppressWarnings("unchecked")
 	public <T extends AbstractEvent> void bind(Class<T> eventClazz, Consumer<T> action) {
-		if (eventClazz.isInstance(this)) {
+		// exact class match (the usual case) does not need the instanceof check
+		if (eventClazz == getClass() || eventClazz.isInstance(this)) {
 			action.accept((T) this);
 		}
 	}
 	
+	/**
+	 * @return skrzynka nadawcy - zdarzenia z tej samej skrzynki obsługiwane są po kolei,
+	 * null jeśli zdarzenie nie ma nadawcy (trafia do wspólnej skrzynki)
+	 */
+	public EventMailbox getMailbox() {
+		return null;
+	}
+	
 }
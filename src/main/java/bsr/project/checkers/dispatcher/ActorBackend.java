@@ -0,0 +1,78 @@
+package bsr.project.checkers.dispatcher;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import bsr.project.checkers.logger.Logs;
+
+/**
+ * skrzynki zdarzeń (aktorzy) - zdarzenia jednego nadawcy obsługiwane są po kolei,
+ * a skrzynki różnych nadawców opróżniane równolegle przez pulę wątków
+ */
+class ActorBackend implements IDispatchBackend {
+	
+	/** maksymalna liczba zdarzeń obsłużonych z jednej skrzynki, zanim wątek zajmie się inną */
+	private static final int BATCH_SIZE = 64;
+	
+	private final Consumer<AbstractEvent> dispatcher;
+	
+	private final ExecutorService workers;
+	
+	/** skrzynka dla zdarzeń bez nadawcy (np. zdarzenia serwera) */
+	private final EventMailbox globalMailbox = new EventMailbox();
+	
+	ActorBackend(Consumer<AbstractEvent> dispatcher, int workersCount) {
+		this.dispatcher = dispatcher;
+		AtomicInteger threadIndex = new AtomicInteger();
+		workers = Executors.newFixedThreadPool(workersCount, runnable -> {
+			Thread thread = new Thread(runnable, "dispatcher-" + threadIndex.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	@Override
+	public void submit(AbstractEvent event) {
+		EventMailbox mailbox = event.getMailbox();
+		if (mailbox == null)
+			mailbox = globalMailbox;
+		mailbox.events.add(event);
+		schedule(mailbox);
+	}
+	
+	private void schedule(EventMailbox mailbox) {
+		if (mailbox.scheduled.compareAndSet(false, true)) {
+			workers.execute(() -> drain(mailbox));
+		}
+	}
+	
+	private void drain(EventMailbox mailbox) {
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			AbstractEvent event = mailbox.events.poll();
+			if (event == null)
+				break;
+			try {
+				dispatcher.accept(event);
+			} catch (Throwable e) {
+				Logs.error(e);
+			}
+		}
+		mailbox.scheduled.set(false);
+		// events added after the last poll (or left over after the batch) - drain them later
+		if (!mailbox.events.isEmpty()) {
+			schedule(mailbox);
+		}
+	}
+	
+	@Override
+	public boolean isSynchronous() {
+		return false;
+	}
+	
+	@Override
+	public void shutdown() {
+		workers.shutdown();
+	}
+}
@@ -1,32 +1,60 @@
 package bsr.project.checkers.dispatcher;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
 import bsr.project.checkers.logger.Logs;
 
 public class EventDispatcher {
 	
-	private static EventDispatcher instance = null;
+	private static final EventDispatcher instance = new EventDispatcher();
 	
 	private static EventDispatcher getInstance() {
-		if (instance == null) {
-			instance = new EventDispatcher();
-		}
 		return instance;
 	}
 	
-	private final Map<Class<? extends AbstractEvent>, List<IEventObserver>> eventObservers = new HashMap<>();
-	
-	private final List<AbstractEvent> eventsQueue = new ArrayList<>();
+	private final ObserverRegistry eventObservers = new ObserverRegistry();
 	
-	private volatile boolean dispatching = false;
+	private volatile IDispatchBackend backend = new SynchronousBackend(this::dispatch);
 	
 	private EventDispatcher() {
 	}
 	
+	/**
+	 * przełącza dyspozytor na obsługę zdarzeń od razu w wątku, który je wysłał (domyślnie)
+	 */
+	public static void useSynchronous() {
+		getInstance().setBackend(new SynchronousBackend(getInstance()::dispatch));
+	}
+	
+	/**
+	 * przełącza dyspozytor na skrzynki zdarzeń obsługiwane przez pulę wątków
+	 * (powinno być wywołane przy starcie, zanim zostaną wysłane pierwsze zdarzenia)
+	 * @param workers liczba wątków obsługujących zdarzenia
+	 */
+	public static void useActorMailboxes(int workers) {
+		getInstance().setBackend(new ActorBackend(getInstance()::dispatch, workers));
+	}
+	
+	/**
+	 * przełącza dyspozytor na bezblokadowy bufor cykliczny z jednym wątkiem obsługującym zdarzenia
+	 * (powinno być wywołane przy starcie, zanim zostaną wysłane pierwsze zdarzenia)
+	 * @param size         rozmiar bufora (zaokrąglany w górę do potęgi 2)
+	 * @param waitStrategy sposób oczekiwania na zdarzenia i wolne miejsce w buforze
+	 * @param batchSize    maksymalna liczba zdarzeń obsłużonych w jednej paczce
+	 */
+	public static void useRingBuffer(int size, WaitStrategy waitStrategy, int batchSize) {
+		getInstance().setBackend(new RingBufferBackend(getInstance()::dispatch, size, waitStrategy, batchSize));
+	}
+	
+	/**
+	 * @return czy zdarzenia są obsługiwane od razu przez wątek, który je wysłał (dane zdarzenia nie muszą być kopiowane)
+	 */
+	public static boolean isSynchronous() {
+		return getInstance().backend.isSynchronous();
+	}
+	
+	public static void shutdown() {
+		getInstance().backend.shutdown();
+	}
+	
 	public static void registerEventObserver(Class<? extends AbstractEvent> eventClass, IEventObserver observer) {
 		getInstance()._registerEventObserver(eventClass, observer);
 	}
@@ -40,70 +68,31 @@ public class EventDispatcher {
 	}
 	
 	private void _registerEventObserver(Class<? extends AbstractEvent> eventClass, IEventObserver observer) {
-		synchronized (eventObservers) {
-			List<IEventObserver> observers = eventObservers.get(eventClass);
-			if (observers == null) {
-				observers = new ArrayList<>();
-			}
-			if (!observers.contains(observer)) {
-				observers.add(observer);
-			}
-			eventObservers.put(eventClass, observers);
-		}
+		eventObservers.register(eventClass, observer);
 	}
 	
 	private void _unregisterEventObserver(IEventObserver observer) {
-		synchronized (eventObservers) {
-			for (Class<? extends AbstractEvent> clazz : eventObservers.keySet()) {
-				List<IEventObserver> observers = eventObservers.get(clazz);
-				if (observers != null) {
-					observers.removeIf(obs -> obs == observer);
-				}
-			}
-		}
+		eventObservers.unregister(observer);
 	}
 	
 	private void _sendEvent(AbstractEvent event) {
-		synchronized (eventsQueue) {
-			eventsQueue.add(event);
-		}
-		dispatchEvents();
+		backend.submit(event);
 	}
 	
-	private void clearEventObservers(Class<? extends AbstractEvent> eventClass) {
-		List<IEventObserver> observers = eventObservers.get(eventClass);
-		if (observers != null) {
-			observers.clear();
-		}
-		eventObservers.put(eventClass, null);
-	}
-	
-	private void dispatchEvents() {
-		if (dispatching)
-			return;
-		dispatching = true;
-		
-		synchronized (eventsQueue) {
-			while (!eventsQueue.isEmpty()) {
-				dispatch(eventsQueue.get(0));
-				eventsQueue.remove(0);
-			}
-		}
-		
-		dispatching = false;
+	private void setBackend(IDispatchBackend newBackend) {
+		IDispatchBackend oldBackend = backend;
+		backend = newBackend;
+		oldBackend.shutdown();
 	}
 	
 	private void dispatch(AbstractEvent event) {
-		synchronized (eventObservers) {
-			List<IEventObserver> observers = eventObservers.get(event.getClass());
-			if (observers == null || observers.isEmpty()) {
-				Logs.warn("no observer for event " + event.getClass().getName());
-			}
-			if (observers != null) {
-				for (IEventObserver observer : observers) {
-					observer.onEvent(event);
-				}
-			}
+		// lock-free read of the current observers snapshot
+		IEventObserver[] observers = eventObservers.observersOf(event.getClass());
+		if (observers.length == 0) {
+			Logs.warn("no observer for event " + event.getClass().getName());
+		}
+		for (IEventObserver observer : observers) {
+			observer.onEvent(event);
 		}
 	}
 }
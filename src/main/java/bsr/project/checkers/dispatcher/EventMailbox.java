@@ -0,0 +1,18 @@
+package bsr.project.checkers.dispatcher;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * skrzynka zdarzeń jednego nadawcy (np. klienta) - zdarzenia z jednej skrzynki
+ * są obsługiwane po kolei, w kolejności wysłania, przez co najwyżej jeden wątek naraz
+ */
+public class EventMailbox {
+	
+	final Queue<AbstractEvent> events = new ConcurrentLinkedQueue<>();
+	
+	/** czy skrzynka jest zaplanowana do opróżnienia lub właśnie opróżniana */
+	final AtomicBoolean scheduled = new AtomicBoolean(false);
+	
+}
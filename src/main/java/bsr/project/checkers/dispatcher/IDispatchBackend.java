@@ -0,0 +1,17 @@
+package bsr.project.checkers.dispatcher;
+
+/**
+ * sposób kolejkowania i przekazywania zdarzeń do obserwatorów
+ */
+interface IDispatchBackend {
+	
+	void submit(AbstractEvent event);
+	
+	/**
+	 * @return czy zdarzenie jest obsłużone przez wątek wysyłający, zanim {@link #submit} się zakończy
+	 */
+	boolean isSynchronous();
+	
+	void shutdown();
+	
+}
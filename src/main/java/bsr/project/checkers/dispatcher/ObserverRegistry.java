@@ -0,0 +1,108 @@
+package bsr.project.checkers.dispatcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * rejestr obserwatorów kopiowany przy zapisie - rejestracja tworzy nową, niezmienną migawkę,
+ * a odczyt przy obsłudze zdarzenia nie zakłada żadnej blokady
+ */
+class ObserverRegistry {
+	
+	private static final IEventObserver[] NO_OBSERVERS = new IEventObserver[0];
+	
+	private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap());
+	
+	private final Object writeLock = new Object();
+	
+	/**
+	 * @return obserwatorzy zdarzeń danej klasy (zarejestrowani dla niej lub dla jej nadklas)
+	 */
+	IEventObserver[] observersOf(Class<? extends AbstractEvent> eventClass) {
+		return snapshot.resolve(eventClass);
+	}
+	
+	void register(Class<? extends AbstractEvent> eventClass, IEventObserver observer) {
+		synchronized (writeLock) {
+			Map<Class<? extends AbstractEvent>, List<IEventObserver>> registrations = snapshot.copyRegistrations();
+			List<IEventObserver> observers = registrations.get(eventClass);
+			if (observers == null) {
+				observers = new ArrayList<>();
+				registrations.put(eventClass, observers);
+			}
+			if (!observers.contains(observer)) {
+				observers.add(observer);
+			}
+			snapshot = new Snapshot(registrations);
+		}
+	}
+	
+	void unregister(IEventObserver observer) {
+		synchronized (writeLock) {
+			Map<Class<? extends AbstractEvent>, List<IEventObserver>> registrations = snapshot.copyRegistrations();
+			for (List<IEventObserver> observers : registrations.values()) {
+				observers.removeIf(obs -> obs == observer);
+			}
+			snapshot = new Snapshot(registrations);
+		}
+	}
+	
+	private static class Snapshot {
+		
+		private final Map<Class<? extends AbstractEvent>, IEventObserver[]> registrations;
+		
+		/** obserwatorzy wyliczeni dla klasy zdarzenia z uwzględnieniem nadklas */
+		private final Map<Class<?>, IEventObserver[]> resolved = new ConcurrentHashMap<>();
+		
+		Snapshot(Map<Class<? extends AbstractEvent>, List<IEventObserver>> registrations) {
+			Map<Class<? extends AbstractEvent>, IEventObserver[]> arrays = new LinkedHashMap<>();
+			for (Map.Entry<Class<? extends AbstractEvent>, List<IEventObserver>> entry : registrations.entrySet()) {
+				arrays.put(entry.getKey(), entry.getValue().toArray(NO_OBSERVERS));
+			}
+			this.registrations = arrays;
+			// precompute for all registered event classes
+			for (Class<? extends AbstractEvent> eventClass : arrays.keySet()) {
+				resolve(eventClass);
+			}
+		}
+		
+		IEventObserver[] resolve(Class<?> eventClass) {
+			IEventObserver[] observers = resolved.get(eventClass);
+			if (observers == null) {
+				// event class not known at registration time (e.g. subclass of registered event)
+				observers = collectObservers(eventClass);
+				resolved.put(eventClass, observers);
+			}
+			return observers;
+		}
+		
+		private IEventObserver[] collectObservers(Class<?> eventClass) {
+			List<IEventObserver> observers = new ArrayList<>();
+			for (Class<?> clazz = eventClass; clazz != null && AbstractEvent.class.isAssignableFrom(clazz); clazz = clazz.getSuperclass()) {
+				IEventObserver[] registered = registrations.get(clazz);
+				if (registered != null) {
+					for (IEventObserver observer : registered) {
+						if (!observers.contains(observer)) {
+							observers.add(observer);
+						}
+					}
+				}
+			}
+			return observers.isEmpty() ? NO_OBSERVERS : observers.toArray(NO_OBSERVERS);
+		}
+		
+		Map<Class<? extends AbstractEvent>, List<IEventObserver>> copyRegistrations() {
+			Map<Class<? extends AbstractEvent>, List<IEventObserver>> copy = new LinkedHashMap<>();
+			for (Map.Entry<Class<? extends AbstractEvent>, IEventObserver[]> entry : registrations.entrySet()) {
+				List<IEventObserver> observers = new ArrayList<>();
+				Collections.addAll(observers, entry.getValue());
+				copy.put(entry.getKey(), observers);
+			}
+			return copy;
+		}
+	}
+}
@@ -0,0 +1,168 @@
+package bsr.project.checkers.dispatcher;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import bsr.project.checkers.logger.Logs;
+
+/**
+ * bezblokadowy bufor cykliczny (wielu producentów, jeden konsument) z licznikami sekwencji:
+ * producent rezerwuje numer sekwencji, zapisuje zdarzenie do z góry zaalokowanej komórki i publikuje numer,
+ * a wątek konsumenta obsługuje kolejno opublikowane zdarzenia w paczkach
+ */
+class RingBufferBackend implements IDispatchBackend {
+	
+	/** maksymalny czas uśpienia konsumenta w strategii PARK (producenci budzą go wcześniej) */
+	private static final long PARK_NANOS = 1000000L;
+	
+	private final Consumer<AbstractEvent> dispatcher;
+	private final WaitStrategy waitStrategy;
+	private final int batchSize;
+	
+	private final int capacity;
+	private final int mask;
+	private final AbstractEvent[] entries;
+	/** numer sekwencji opublikowany w każdej komórce (-1 - jeszcze nieopublikowana) */
+	private final AtomicLongArray published;
+	
+	/** ostatni numer zarezerwowany przez producentów */
+	private final AtomicLong claimed = new AtomicLong(-1);
+	/** ostatni numer obsłużony przez konsumenta */
+	private final AtomicLong consumed = new AtomicLong(-1);
+	
+	private final Thread consumer;
+	private volatile boolean running = true;
+	private volatile boolean consumerParked = false;
+	
+	/** zdarzenia wysłane przez obserwatorów w trakcie obsługi (tylko wątek konsumenta) */
+	private final Queue<AbstractEvent> nestedEvents = new ArrayDeque<>();
+	
+	RingBufferBackend(Consumer<AbstractEvent> dispatcher, int size, WaitStrategy waitStrategy, int batchSize) {
+		this.dispatcher = dispatcher;
+		this.waitStrategy = waitStrategy;
+		this.batchSize = batchSize;
+		
+		// capacity rounded up to power of 2, so that index = sequence & mask
+		int powerOf2 = Integer.highestOneBit(size);
+		capacity = powerOf2 < size ? powerOf2 << 1 : powerOf2;
+		mask = capacity - 1;
+		entries = new AbstractEvent[capacity];
+		published = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			published.set(i, -1);
+		}
+		
+		consumer = new Thread(this::consumeEvents, "dispatcher-ring");
+		consumer.setDaemon(true);
+		consumer.start();
+	}
+	
+	@Override
+	public void submit(AbstractEvent event) {
+		if (Thread.currentThread() == consumer) {
+			// dispatched after the current event - waiting for free slot here would block the only consumer
+			nestedEvents.add(event);
+			return;
+		}
+		
+		long sequence = claimed.incrementAndGet();
+		// wait until consumer frees the slot from the previous lap
+		int attempt = 0;
+		while (sequence - capacity > consumed.get()) {
+			producerIdle(attempt++);
+		}
+		
+		int index = (int) sequence & mask;
+		entries[index] = event;
+		published.lazySet(index, sequence);
+		
+		if (consumerParked) {
+			LockSupport.unpark(consumer);
+		}
+	}
+	
+	private void consumeEvents() {
+		long next = consumed.get() + 1;
+		int attempt = 0;
+		while (running) {
+			// find the longest batch of published events
+			long last = next - 1;
+			while (last - next + 1 < batchSize && published.get((int) (last + 1) & mask) == last + 1) {
+				last++;
+			}
+			
+			if (last < next) {
+				consumerIdle(next, attempt++);
+				continue;
+			}
+			attempt = 0;
+			
+			for (long sequence = next; sequence <= last; sequence++) {
+				int index = (int) sequence & mask;
+				AbstractEvent event = entries[index];
+				entries[index] = null;
+				dispatchSafely(event);
+				AbstractEvent nested;
+				while ((nested = nestedEvents.poll()) != null) {
+					dispatchSafely(nested);
+				}
+			}
+			// free the whole batch at once
+			consumed.lazySet(last);
+			next = last + 1;
+		}
+	}
+	
+	private void dispatchSafely(AbstractEvent event) {
+		try {
+			dispatcher.accept(event);
+		} catch (Throwable e) {
+			Logs.error(e);
+		}
+	}
+	
+	private void consumerIdle(long next, int attempt) {
+		switch (waitStrategy) {
+			case BUSY_SPIN:
+				break;
+			case YIELD:
+				Thread.yield();
+				break;
+			case PARK:
+				consumerParked = true;
+				// re-check after announcing parking, so that a concurrent publish is not missed
+				if (published.get((int) next & mask) != next && running) {
+					LockSupport.parkNanos(this, PARK_NANOS);
+				}
+				consumerParked = false;
+				break;
+		}
+	}
+	
+	/**
+	 * producenci nigdy nie czekają aktywnie (niezależnie od strategii) - bufor jest pełny tylko chwilowo,
+	 * a kręcący się producenci zabieraliby procesor jedynemu konsumentowi
+	 */
+	private void producerIdle(int attempt) {
+		if (attempt < 100) {
+			Thread.yield();
+		} else {
+			LockSupport.parkNanos(1);
+		}
+	}
+	
+	@Override
+	public boolean isSynchronous() {
+		return false;
+	}
+	
+	@Override
+	public void shutdown() {
+		running = false;
+		LockSupport.unpark(consumer);
+	}
+}
@@ -0,0 +1,60 @@
+package bsr.project.checkers.dispatcher;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * jedna globalna kolejka - zdarzenia obsługuje wątek, który je wysłał,
+ * zdarzenia wysłane w trakcie obsługi innego zdarzenia trafiają na koniec kolejki
+ */
+class SynchronousBackend implements IDispatchBackend {
+	
+	private final Consumer<AbstractEvent> dispatcher;
+	
+	private final Queue<AbstractEvent> eventsQueue = new ArrayDeque<>();
+	/**
+	 * obsługa zdarzeń (razem z zapisem odpowiedzi do gniazd) odbywa się pod tą blokadą -
+	 * zamiast monitora, żeby zablokowany wątek wirtualny nie zajmował wątku nośnego
+	 */
+	private final ReentrantLock queueLock = new ReentrantLock();
+	
+	/** dostęp tylko pod blokadą queueLock */
+	private boolean dispatching = false;
+	
+	SynchronousBackend(Consumer<AbstractEvent> dispatcher) {
+		this.dispatcher = dispatcher;
+	}
+	
+	@Override
+	public void submit(AbstractEvent event) {
+		queueLock.lock();
+		try {
+			eventsQueue.add(event);
+			// event sent by an observer during dispatching - it will be dispatched by the outer loop
+			if (dispatching)
+				return;
+			dispatching = true;
+			try {
+				AbstractEvent next;
+				while ((next = eventsQueue.poll()) != null) {
+					dispatcher.accept(next);
+				}
+			} finally {
+				dispatching = false;
+			}
+		} finally {
+			queueLock.unlock();
+		}
+	}
+	
+	@Override
+	public boolean isSynchronous() {
+		return true;
+	}
+	
+	@Override
+	public void shutdown() {
+	}
+}
@@ -0,0 +1,17 @@
+package bsr.project.checkers.dispatcher;
+
+/**
+ * sposób oczekiwania na nowe zdarzenia (konsument) lub na wolne miejsce w buforze (producenci)
+ */
+public enum WaitStrategy {
+	
+	/** aktywne czekanie - najmniejsze opóźnienia, ale zajmuje cały rdzeń procesora */
+	BUSY_SPIN,
+	
+	/** oddawanie procesora innym wątkom pomiędzy kolejnymi próbami */
+	YIELD,
+	
+	/** usypianie wątku - najmniejsze zużycie procesora przy małym ruchu */
+	PARK
+	
+}
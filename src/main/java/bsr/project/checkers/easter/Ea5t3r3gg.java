@@ -7,7 +7,7 @@ import java.util.Base64;
 public class Ea5t3r3gg {
 
 	public static void validatePacketCode(String code) throws ParseException {
-		if ("ZHVwYQ==".equals(base64Encode(code.toLowerCase()))) {
+		if (code.length() == 4 && "ZHVwYQ==".equals(base64Encode(code.toLowerCase()))) {
 			throw new ParseException(base64Decode("Q29uZ3JhdHVsYXRpb25zLCB5b3UgaGF2ZSBkaXNjb3ZlcmVkIGFuIGVhc3RlciBlZ2ch"), 0);
 		}
 	}
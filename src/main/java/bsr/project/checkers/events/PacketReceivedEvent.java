@@ -2,13 +2,14 @@ package bsr.project.checkers.events;
 
 import bsr.project.checkers.client.ClientData;
 import bsr.project.checkers.dispatcher.AbstractEvent;
+import bsr.project.checkers.dispatcher.EventMailbox;
 
 public class PacketReceivedEvent extends AbstractEvent {
 	
 	private ClientData clientData;
-	private String received;
+	private CharSequence received;
 	
-	public PacketReceivedEvent(ClientData clientData, String received) {
+	public PacketReceivedEvent(ClientData clientData, CharSequence received) {
 		this.clientData = clientData;
 		this.received = received;
 	}
@@ -17,7 +18,12 @@ public class PacketReceivedEvent extends AbstractEvent {
 		return clientData;
 	}
 	
-	public String getReceived() {
+	public CharSequence getReceived() {
 		return received;
 	}
+	
+	@Override
+	public EventMailbox getMailbox() {
+		return clientData.getMailbox();
+	}
 }
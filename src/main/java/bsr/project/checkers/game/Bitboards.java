@@ -0,0 +1,187 @@
+package bsr.project.checkers.game;
+
+import java.util.Arrays;
+
+/**
+ * operacje na planszy zapisanej jako 32-bitowe maski ciemnych pól (bitboard)
+ *
+ * numeracja pól: square = y * 4 + x / 2 (tylko pola, dla których x + y jest nieparzyste)
+ * <pre>
+ *   .  0  .  1  .  2  .  3    y = 0 (koniec planszy dla białych)
+ *   4  .  5  .  6  .  7  .    y = 1
+ *   .  8  .  9  . 10  . 11
+ *  12  . 13  . 14  . 15  .
+ *   . 16  . 17  . 18  . 19
+ *  20  . 21  . 22  . 23  .
+ *   . 24  . 25  . 26  . 27
+ *  28  . 29  . 30  . 31  .    y = 7 (koniec planszy dla czarnych)
+ * </pre>
+ * ruchy w dół planszy (y + 1) to przesunięcia bitowe w lewo, w górę (y - 1) - w prawo;
+ * wielkość przesunięcia zależy od parzystości wiersza
+ */
+public class Bitboards {
+	
+	public static final int SQUARES = 32;
+	/** brak pola (np. brak bierki, która musi wykonać następny ruch) */
+	public static final int NO_SQUARE = -1;
+	
+	/** wiersze parzyste (y = 0, 2, 4, 6) - ciemne pola w kolumnach nieparzystych */
+	public static final int EVEN_ROWS = 0x0F0F0F0F;
+	/** wiersze nieparzyste (y = 1, 3, 5, 7) - ciemne pola w kolumnach parzystych */
+	public static final int ODD_ROWS = 0xF0F0F0F0;
+	/** pola przy lewej krawędzi (x = 0) */
+	public static final int LEFT_EDGE = 0x10101010;
+	/** pola przy prawej krawędzi (x = 7) */
+	public static final int RIGHT_EDGE = 0x08080808;
+	/** pierwszy wiersz (y = 0) - promocja białych */
+	public static final int TOP_ROW = 0x0000000F;
+	/** ostatni wiersz (y = 7) - promocja czarnych */
+	public static final int BOTTOM_ROW = 0xF0000000;
+	
+	/**
+	 * @return numer ciemnego pola lub -1, jeśli pole jest jasne lub poza planszą
+	 */
+	public static int square(int x, int y) {
+		if (x < 0 || y < 0 || x >= Board.BOARD_SIZE || y >= Board.BOARD_SIZE || ((x + y) & 1) == 0)
+			return -1;
+		return (y << 2) | (x >> 1);
+	}
+	
+	public static int squareX(int square) {
+		return ((square & 3) << 1) | (((square >> 2) & 1) ^ 1);
+	}
+	
+	public static int squareY(int square) {
+		return square >> 2;
+	}
+	
+	public static int bit(int square) {
+		return 1 << square;
+	}
+	
+	// kierunki ruchu po przekątnej (indeksy tablic sąsiedztwa)
+	public static final int DOWN_LEFT = 0;
+	public static final int DOWN_RIGHT = 1;
+	public static final int UP_LEFT = 2;
+	public static final int UP_RIGHT = 3;
+	public static final int DIRECTIONS = 4;
+	
+	private static final int[] DIRECTION_DX = {-1, 1, -1, 1};
+	private static final int[] DIRECTION_DY = {1, 1, -1, -1};
+	
+	/** sąsiednie pole w danym kierunku (przeskakiwane przy biciu) lub -1: NEIGHBOURS[kierunek][pole] */
+	private static final int[][] NEIGHBOURS = new int[DIRECTIONS][SQUARES];
+	/** pole lądowania po biciu w danym kierunku lub -1 */
+	private static final int[][] JUMP_LANDINGS = new int[DIRECTIONS][SQUARES];
+	/** pole przeskakiwane przy biciu z pola (wiersz) na pole (kolumna) lub -1, jeśli to nie jest bicie */
+	private static final int[][] JUMPED_SQUARES = new int[SQUARES][SQUARES];
+	
+	static {
+		for (int[] row : JUMPED_SQUARES) {
+			Arrays.fill(row, -1);
+		}
+		for (int square = 0; square < SQUARES; square++) {
+			int x = squareX(square);
+			int y = squareY(square);
+			for (int direction = 0; direction < DIRECTIONS; direction++) {
+				int dx = DIRECTION_DX[direction];
+				int dy = DIRECTION_DY[direction];
+				int neighbour = square(x + dx, y + dy);
+				int landing = square(x + 2 * dx, y + 2 * dy);
+				NEIGHBOURS[direction][square] = neighbour;
+				JUMP_LANDINGS[direction][square] = landing;
+				if (landing >= 0)
+					JUMPED_SQUARES[square][landing] = neighbour;
+			}
+		}
+	}
+	
+	/**
+	 * @return sąsiednie pole w podanym kierunku lub -1 (krawędź planszy)
+	 */
+	public static int neighbour(int direction, int square) {
+		return NEIGHBOURS[direction][square];
+	}
+	
+	/**
+	 * @return pole lądowania po biciu w podanym kierunku lub -1 (krawędź planszy)
+	 */
+	public static int jumpLanding(int direction, int square) {
+		return JUMP_LANDINGS[direction][square];
+	}
+	
+	/**
+	 * @return pole przeskakiwane przy ruchu z from na to lub -1, jeśli ruch nie jest przeskokiem
+	 */
+	public static int jumpedSquare(int from, int to) {
+		return JUMPED_SQUARES[from][to];
+	}
+	
+	// przesunięcia wszystkich pól maski o jedno pole po przekątnej
+	
+	/** (x - 1, y + 1) */
+	public static int downLeft(int mask) {
+		return ((mask & EVEN_ROWS) << 4) | ((mask & ODD_ROWS & ~LEFT_EDGE) << 3);
+	}
+	
+	/** (x + 1, y + 1) */
+	public static int downRight(int mask) {
+		return ((mask & EVEN_ROWS & ~RIGHT_EDGE) << 5) | ((mask & ODD_ROWS) << 4);
+	}
+	
+	/** (x - 1, y - 1) */
+	public static int upLeft(int mask) {
+		return ((mask & EVEN_ROWS) >>> 4) | ((mask & ODD_ROWS & ~LEFT_EDGE) >>> 5);
+	}
+	
+	/** (x + 1, y - 1) */
+	public static int upRight(int mask) {
+		return ((mask & EVEN_ROWS & ~RIGHT_EDGE) >>> 3) | ((mask & ODD_ROWS) >>> 4);
+	}
+	
+	// przesunięcia we wszystkich kierunkach w dół / w górę
+	
+	private static int down(int mask) {
+		return downLeft(mask) | downRight(mask);
+	}
+	
+	private static int up(int mask) {
+		return upLeft(mask) | upRight(mask);
+	}
+	
+	/**
+	 * @param white czy ruch wykonują białe (białe idą w górę planszy, czarne w dół)
+	 * @return pola z pionami lub damkami gracza, które mogą wykonać zwykły ruch (bez bicia)
+	 */
+	public static int movers(int own, int kings, int empty, boolean white) {
+		int forwardMovers = white ? down(empty) & own : up(empty) & own;
+		int backwardMovers = white ? up(empty) & own & kings : down(empty) & own & kings;
+		return forwardMovers | backwardMovers;
+	}
+	
+	/**
+	 * piony i damki biją we wszystkich czterech kierunkach
+	 * @return pola z bierkami gracza, które mogą wykonać bicie
+	 */
+	public static int jumpers(int own, int opponent, int empty) {
+		int jumpers = 0;
+		// going back from empty landing field over opponent piece to own piece, in every direction
+		jumpers |= upRight(upRight(empty) & opponent) & own;
+		jumpers |= upLeft(upLeft(empty) & opponent) & own;
+		jumpers |= downRight(downRight(empty) & opponent) & own;
+		jumpers |= downLeft(downLeft(empty) & opponent) & own;
+		return jumpers;
+	}
+	
+	/**
+	 * @return pola docelowe bicia z podanych pól
+	 */
+	public static int jumpTargets(int from, int opponent, int empty) {
+		int targets = 0;
+		targets |= downLeft(downLeft(from) & opponent) & empty;
+		targets |= downRight(downRight(from) & opponent) & empty;
+		targets |= upLeft(upLeft(from) & opponent) & empty;
+		targets |= upRight(upRight(from) & opponent) & empty;
+		return targets;
+	}
+}
@@ -3,6 +3,9 @@ package bsr.project.checkers.game;
 import bsr.project.checkers.protocol.BoardSymbols;
 import java.util.List;
 
+/**
+ * plansza do gry - stan przechowywany w trzech maskach bitowych ciemnych pól ({@link Bitboards})
+ */
 public class Board {
 	/*
 	board[x][y]
@@ -10,7 +13,7 @@ public class Board {
 	(0,1) (1,1) ... (BOARD_SIZE-1,1)
 	...   ...   ... ...
 	(0,BOARD_SIZE-1) (1,BOARD_SIZE-1) ... (BOARD_SIZE-1,BOARD_SIZE-1)
-
+	
 	initial board:
 	OCOCOCOC
 	COCOCOCO
@@ -21,38 +24,70 @@ public class Board {
 	OBOBOBOB
 	BOBOBOBO
 	*/
-	private char[][] map;
+	/** pola zajęte przez białe bierki (piony i damki) - numeracja pól {@link Bitboards} */
+	private int white;
+	/** pola zajęte przez czarne bierki */
+	private int black;
+	/** pola zajęte przez damki (obu kolorów) */
+	private int kings;
+	
+	// liczniki bierek, aktualizowane przy każdej zmianie pola
+	private int whitePawns;
+	private int whiteKings;
+	private int blackPawns;
+	private int blackKings;
+	
+	/** skrót Zobrista bierek na planszy ({@link Zobrist}), aktualizowany przy każdej zmianie pola */
+	private long hash;
 	
 	public static final int BOARD_SIZE = 8;
 	public static final int PAWN_INITIAL_ROWS = 3;
 	
+	/** wartość piona i damki w ocenie materiału */
+	public static final int PAWN_VALUE = 100;
+	public static final int KING_VALUE = 150;
+	
 	public Board() {
 		initBoard();
 	}
-
+	
 	public Board(Board sourceBoard){
-		map = new char[BOARD_SIZE][BOARD_SIZE];
 		// copy board
-		for (int x = 0; x < BOARD_SIZE; x++) {
-			for (int y = 0; y < BOARD_SIZE; y++) {
-				map[x][y] = sourceBoard.map[x][y];
-			}
+		white = sourceBoard.white;
+		black = sourceBoard.black;
+		kings = sourceBoard.kings;
+		whitePawns = sourceBoard.whitePawns;
+		whiteKings = sourceBoard.whiteKings;
+		blackPawns = sourceBoard.blackPawns;
+		blackKings = sourceBoard.blackKings;
+		hash = sourceBoard.hash;
+	}
+	
+	/**
+	 * @param cells pola planszy wierszami (jak w {@link #toString()} i pakiecie CHB)
+	 */
+	public static Board fromString(String cells) {
+		if (cells.length() != BOARD_SIZE * BOARD_SIZE)
+			throw new IllegalArgumentException("invalid board length: " + cells.length());
+		Board board = new Board();
+		for (int i = 0; i < cells.length(); i++) {
+			board.setCell(Point.of(i % BOARD_SIZE, i / BOARD_SIZE), cells.charAt(i));
 		}
+		return board;
 	}
 	
 	private void initBoard() {
-		map = new char[BOARD_SIZE][BOARD_SIZE];
 		// clear board
-		for (int x = 0; x < BOARD_SIZE; x++) {
-			for (int y = 0; y < BOARD_SIZE; y++) {
-				map[x][y] = BoardSymbols.EMPTY;
-			}
-		}
+		white = 0;
+		black = 0;
+		kings = 0;
+		whitePawns = whiteKings = blackPawns = blackKings = 0;
+		hash = 0;
 		// set initial pawn positions: black
 		for (int y = 0; y < PAWN_INITIAL_ROWS; y++) {
 			for (int x = 0; x < BOARD_SIZE; x++) {
 				if ((x + y) % 2 == 1) {
-					map[x][y] = BoardSymbols.BLACK_PAWN;
+					setSquare(Bitboards.square(x, y), BoardSymbols.BLACK_PAWN);
 				}
 			}
 		}
@@ -60,7 +95,7 @@ public class Board {
 		for (int y = BOARD_SIZE - PAWN_INITIAL_ROWS; y < BOARD_SIZE; y++) {
 			for (int x = 0; x < BOARD_SIZE; x++) {
 				if ((x + y) % 2 == 1) {
-					map[x][y] = BoardSymbols.WHITE_PAWN;
+					setSquare(Bitboards.square(x, y), BoardSymbols.WHITE_PAWN);
 				}
 			}
 		}
@@ -68,43 +103,272 @@ public class Board {
 	
 	public int countSymbols(char... symbols) {
 		int count = 0;
-		for (int x = 0; x < BOARD_SIZE; x++) {
-			for (int y = 0; y < BOARD_SIZE; y++) {
-				for (char symbol : symbols) {
-					if (map[x][y] == symbol)
-						count++;
-				}
-			}
+		for (char symbol : symbols) {
+			count += countSymbol(symbol);
 		}
 		return count;
 	}
 	
+	private int countSymbol(char symbol) {
+		switch (symbol) {
+			case BoardSymbols.WHITE_PAWN:
+				return whitePawns;
+			case BoardSymbols.WHITE_KING:
+				return whiteKings;
+			case BoardSymbols.BLACK_PAWN:
+				return blackPawns;
+			case BoardSymbols.BLACK_KING:
+				return blackKings;
+			case BoardSymbols.EMPTY:
+				return BOARD_SIZE * BOARD_SIZE - whitePawns - whiteKings - blackPawns - blackKings;
+			default:
+				return 0;
+		}
+	}
+	
+	/**
+	 * @param playerColor kolor gracza (dowolny symbol bierki danego koloru)
+	 */
+	public int getPawnCount(char playerColor) {
+		if (BoardLogic.isWhite(playerColor))
+			return whitePawns;
+		if (BoardLogic.isBlack(playerColor))
+			return blackPawns;
+		return 0;
+	}
+	
+	public int getKingCount(char playerColor) {
+		if (BoardLogic.isWhite(playerColor))
+			return whiteKings;
+		if (BoardLogic.isBlack(playerColor))
+			return blackKings;
+		return 0;
+	}
+	
+	public int getPieceCount(char playerColor) {
+		return getPawnCount(playerColor) + getKingCount(playerColor);
+	}
+	
+	/**
+	 * @return wartość materiału gracza ({@link #PAWN_VALUE}, {@link #KING_VALUE})
+	 */
+	public int getMaterial(char playerColor) {
+		return getPawnCount(playerColor) * PAWN_VALUE + getKingCount(playerColor) * KING_VALUE;
+	}
+	
+	/**
+	 * sprawdzenie (w trybie debugowania) zgodności liczników bierek z pełnym przeliczeniem planszy
+	 * @return opis niezgodności lub null, jeśli liczniki są poprawne
+	 */
+	public String verifyCounters() {
+		int recountedWhitePawns = 0, recountedWhiteKings = 0, recountedBlackPawns = 0, recountedBlackKings = 0;
+		for (int square = 0; square < Bitboards.SQUARES; square++) {
+			switch (getSquare(square)) {
+				case BoardSymbols.WHITE_PAWN:
+					recountedWhitePawns++;
+					break;
+				case BoardSymbols.WHITE_KING:
+					recountedWhiteKings++;
+					break;
+				case BoardSymbols.BLACK_PAWN:
+					recountedBlackPawns++;
+					break;
+				case BoardSymbols.BLACK_KING:
+					recountedBlackKings++;
+					break;
+			}
+		}
+		if (recountedWhitePawns == whitePawns && recountedWhiteKings == whiteKings
+				&& recountedBlackPawns == blackPawns && recountedBlackKings == blackKings)
+			return null;
+		return "piece counters " + whitePawns + "/" + whiteKings + "/" + blackPawns + "/" + blackKings
+				+ " do not match board " + recountedWhitePawns + "/" + recountedWhiteKings + "/" + recountedBlackPawns + "/" + recountedBlackKings;
+	}
+	
 	public char getCell(int x, int y) {
 		if (x < 0 || y < 0 || x >= BOARD_SIZE || y >= BOARD_SIZE)
 			throw new IllegalArgumentException("x or y out of bound");
-		return map[x][y];
+		int square = Bitboards.square(x, y);
+		if (square < 0)
+			return BoardSymbols.EMPTY;
+		return getSquare(square);
 	}
 	
 	public char getCell(Point p) {
 		return getCell(p.x, p.y);
 	}
 	
+	/**
+	 * @param square numer ciemnego pola ({@link Bitboards})
+	 */
+	public char getSquare(int square) {
+		int bit = Bitboards.bit(square);
+		if ((white & bit) != 0)
+			return (kings & bit) != 0 ? BoardSymbols.WHITE_KING : BoardSymbols.WHITE_PAWN;
+		if ((black & bit) != 0)
+			return (kings & bit) != 0 ? BoardSymbols.BLACK_KING : BoardSymbols.BLACK_PAWN;
+		return BoardSymbols.EMPTY;
+	}
+	
 	public void setCell(Point p, char value) {
-		map[p.x][p.y] = value;
+		int square = Bitboards.square(p.x, p.y);
+		if (square < 0) {
+			if (p.x < 0 || p.y < 0 || p.x >= BOARD_SIZE || p.y >= BOARD_SIZE)
+				throw new ArrayIndexOutOfBoundsException("x or y out of bound");
+			if (value != BoardSymbols.EMPTY)
+				throw new IllegalArgumentException("pieces can be placed only on dark fields");
+			return;
+		}
+		setSquare(square, value);
+	}
+	
+	public void setSquare(int square, char value) {
+		char previous = getSquare(square);
+		adjustCounter(previous, -1);
+		adjustCounter(value, 1);
+		hash ^= Zobrist.piece(previous, square) ^ Zobrist.piece(value, square);
+		int bit = Bitboards.bit(square);
+		white &= ~bit;
+		black &= ~bit;
+		kings &= ~bit;
+		switch (value) {
+			case BoardSymbols.WHITE_KING:
+				white |= bit;
+				kings |= bit;
+				break;
+			case BoardSymbols.WHITE_PAWN:
+				white |= bit;
+				break;
+			case BoardSymbols.BLACK_KING:
+				black |= bit;
+				kings |= bit;
+				break;
+			case BoardSymbols.BLACK_PAWN:
+				black |= bit;
+				break;
+		}
+	}
+	
+	private void adjustCounter(char symbol, int delta) {
+		switch (symbol) {
+			case BoardSymbols.WHITE_PAWN:
+				whitePawns += delta;
+				break;
+			case BoardSymbols.WHITE_KING:
+				whiteKings += delta;
+				break;
+			case BoardSymbols.BLACK_PAWN:
+				blackPawns += delta;
+				break;
+			case BoardSymbols.BLACK_KING:
+				blackKings += delta;
+				break;
+		}
+	}
+	
+	// zapis informacji do cofnięcia ruchu (makeMove / unmakeMove) w jednej liczbie:
+	// bity 0-4 - pole zbitej bierki, bit 5 - bicie, bit 6 - promocja, bity 16-31 - symbol zbitej bierki
+	private static final int UNDO_SQUARE_MASK = 0x1F;
+	private static final int UNDO_CAPTURE = 1 << 5;
+	private static final int UNDO_PROMOTION = 1 << 6;
+	private static final int UNDO_PIECE_SHIFT = 16;
+	
+	/**
+	 * wykonuje ruch (wcześniej zwalidowany) w miejscu - bez kopiowania planszy:
+	 * przesunięcie bierki, zbicie przeskoczonej bierki i promocja piona na końcu planszy
+	 * @param from numer ciemnego pola źródłowego ({@link Bitboards})
+	 * @param to   numer ciemnego pola docelowego
+	 * @return informacja potrzebna do cofnięcia ruchu przez {@link #unmakeMove}
+	 */
+	public int makeMove(int from, int to) {
+		char moving = getSquare(from);
+		setSquare(from, BoardSymbols.EMPTY);
+		setSquare(to, moving);
+		int undo = 0;
+		int jumped = Bitboards.jumpedSquare(from, to);
+		if (jumped >= 0) {
+			char captured = getSquare(jumped);
+			if (captured != BoardSymbols.EMPTY) {
+				setSquare(jumped, BoardSymbols.EMPTY);
+				undo = UNDO_CAPTURE | jumped | (captured << UNDO_PIECE_SHIFT);
+			}
+		}
+		if (BoardLogic.isPawn(moving) && BoardLogic.isOnBoardEnd(moving, to)) {
+			setSquare(to, BoardLogic.pawnToKing(moving));
+			undo |= UNDO_PROMOTION;
+		}
+		return undo;
+	}
+	
+	/**
+	 * cofa ruch wykonany przez {@link #makeMove} (musi to być ostatni wykonany ruch)
+	 */
+	public void unmakeMove(int from, int to, int undo) {
+		char moving = getSquare(to);
+		if (isPromotion(undo))
+			moving = BoardLogic.kingToPawn(moving);
+		setSquare(to, BoardSymbols.EMPTY);
+		setSquare(from, moving);
+		if (isCapture(undo))
+			setSquare(capturedSquare(undo), capturedPiece(undo));
+	}
+	
+	public static boolean isCapture(int undo) {
+		return (undo & UNDO_CAPTURE) != 0;
+	}
+	
+	public static boolean isPromotion(int undo) {
+		return (undo & UNDO_PROMOTION) != 0;
 	}
 	
-	public char[][] getMap() {
-		return map;
+	public static int capturedSquare(int undo) {
+		return undo & UNDO_SQUARE_MASK;
+	}
+	
+	public static char capturedPiece(int undo) {
+		return (char) (undo >>> UNDO_PIECE_SHIFT);
+	}
+	
+	public long getHash() {
+		return hash;
+	}
+	
+	public int getWhite() {
+		return white;
+	}
+	
+	public int getBlack() {
+		return black;
+	}
+	
+	public int getKings() {
+		return kings;
+	}
+	
+	public int getEmpty() {
+		return ~(white | black);
+	}
+	
+	/**
+	 * @param playerColor kolor gracza (dowolny symbol bierki danego koloru)
+	 * @return maska pól z bierkami gracza
+	 */
+	public int getPieces(char playerColor) {
+		if (BoardLogic.isWhite(playerColor))
+			return white;
+		if (BoardLogic.isBlack(playerColor))
+			return black;
+		return 0;
 	}
 	
 	public String toString() {
-		StringBuilder sb = new StringBuilder();
+		StringBuilder sb = new StringBuilder(BOARD_SIZE * BOARD_SIZE);
 		for (int y = 0; y < BOARD_SIZE; y++) {
 			for (int x = 0; x < BOARD_SIZE; x++) {
-				sb.append(map[x][y]);
+				sb.append(getCell(x, y));
 			}
 		}
 		return sb.toString();
 	}
-
+	
 }
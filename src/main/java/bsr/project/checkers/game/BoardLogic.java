@@ -40,6 +40,14 @@ public class BoardLogic {
 		return field;
 	}
 	
+	public static char kingToPawn(char field) {
+		if (field == BoardSymbols.WHITE_KING)
+			return BoardSymbols.WHITE_PAWN;
+		if (field == BoardSymbols.BLACK_KING)
+			return BoardSymbols.BLACK_PAWN;
+		return field;
+	}
+	
 	public static boolean isSameColor(char field1, char field2) {
 		if (isWhite(field1) && isWhite(field2))
 			return true;
@@ -63,22 +71,7 @@ public class BoardLogic {
 	public static Point pointBetween(Point p1, Point p2) {
 		int x = (p1.x + p2.x) / 2;
 		int y = (p1.y + p2.y) / 2;
-		return new Point(x, y);
-	}
-	
-	public static List<Point> pointsBetween(Point p1, Point p2) {
-		List<Point> points = new ArrayList<>();
-		
-		int dx = abs(p1.x - p2.x);
-		int dy = abs(p1.y - p2.y);
-		
-		for (int i = 1; i < dx; i++) {
-			int x = p1.x + (p2.x - p1.x) * i / dx;
-			int y = p1.y + (p2.y - p1.y) * i / dy;
-			points.add(new Point(x, y));
-		}
-		
-		return points;
+		return Point.of(x, y);
 	}
 	
 	public static boolean isMovingBackwards(char field, Point source, Point target) {
@@ -101,75 +94,56 @@ public class BoardLogic {
 		}
 		return false;
 	}
-
+	
 	/**
-	 * @return list of potential diagonal move targets based only on posistion on the board
+	 * @param square numer ciemnego pola ({@link Bitboards})
 	 */
-	public static List<Point> potentialTargets(Point source, char sourceField){
-		List<Point> targets = new ArrayList<>();
-		// move by 1 or 2 field diagonal in 4 directions
-		for(int dx = -2; dx <= 2; dx++){
-			addPotentialTarget(source, targets, dx, dx);
-			addPotentialTarget(source, targets, dx, -dx);
-		}
-		return targets;
-	}
-
-	private static void addPotentialTarget(Point source, List<Point> targets, int xOffset, int yOffset) {
-		if(xOffset == 0 && yOffset == 0)
-			return;
-		Point target = source.move(xOffset, yOffset);
-		if (BoardLogic.isOnBoard(target)){
-			if (!targets.contains(target))
-				targets.add(target);
+	public static boolean isOnBoardEnd(char movingColor, int square) {
+		if (isWhite(movingColor)) {
+			return (Bitboards.TOP_ROW & Bitboards.bit(square)) != 0;
+		} else if (isBlack(movingColor)) {
+			return (Bitboards.BOTTOM_ROW & Bitboards.bit(square)) != 0;
 		}
+		return false;
 	}
 	
 	public static int absDX(Point source, Point target){
 		return abs(source.x - target.x);
 	}
-
+	
 	public static int absDY(Point source, Point target){
 		return abs(source.y - target.y);
 	}
-
+	
 	public static List<Point> listAllPlayerPawns(char playerColor, Board board){
 		List<Point> playerPawns = new ArrayList<>();
-
-		for (int x = 0; x < Board.BOARD_SIZE; x++) {
-			for (int y = 0; y < Board.BOARD_SIZE; y++) {
-				char field = board.getCell(x, y);
-				if (isSameColor(playerColor, field)){
-					playerPawns.add(new Point(x, y));
-				}
-			}
+		
+		for (int pieces = board.getPieces(playerColor); pieces != 0; pieces &= pieces - 1) {
+			int square = Integer.numberOfTrailingZeros(pieces);
+			playerPawns.add(Point.ofSquare(square));
 		}
-
+		
 		return playerPawns;
 	}
-
+	
+	/**
+	 * wykonuje ruch (wcześniej zwalidowany - ruch o 1 pole lub bicie, z ciemnego pola na ciemne pole)
+	 */
 	public static void executeMove(Board board, char playerColor, Point source, Point target, boolean verbose){
-		// move source to target
-		char moving = board.getCell(source);
-		board.setCell(target, moving);
-		board.setCell(source, BoardSymbols.EMPTY); // replace by empty field
-		// remove (beat) all the pawns between source and target
-		List<Point> points = pointsBetween(source, target);
-		for (Point p : points) {
-			char cell = board.getCell(p);
-			if (cell != BoardSymbols.EMPTY) {
-				board.setCell(p, BoardSymbols.EMPTY);
-				if (verbose)
-					Logs.debug("Pawn " + cell + " on field " + p.toString() + " has been beaten");
-			}
-		}
-		// if pawn reached end of board
-		if (isOnBoardEnd(playerColor, target) && isPawn(moving)) {
-			// transform pawn to King
-			board.setCell(target, pawnToKing(moving));
-			if (verbose)
-				Logs.debug("pawn on " + target.toString() + " field has been transformed to king");
+		executeMove(board, playerColor, Bitboards.square(source.x, source.y), Bitboards.square(target.x, target.y), verbose);
+	}
+	
+	/**
+	 * wykonuje ruch (wcześniej zwalidowany) między ciemnymi polami o podanych numerach ({@link Bitboards})
+	 */
+	public static void executeMove(Board board, char playerColor, int from, int to, boolean verbose){
+		int undo = board.makeMove(from, to);
+		if (verbose) {
+			if (Board.isCapture(undo))
+				Logs.debug("Pawn " + Board.capturedPiece(undo) + " on field " + Point.ofSquare(Board.capturedSquare(undo)) + " has been beaten");
+			if (Board.isPromotion(undo))
+				Logs.debug("pawn on " + Point.ofSquare(to) + " field has been transformed to king");
 		}
 	}
-
+	
 }
@@ -1,9 +1,11 @@
 package bsr.project.checkers.game;
 
-import java.util.Optional;
-
 import bsr.project.checkers.client.ClientData;
+import bsr.project.checkers.game.validator.CapturePaths;
 import bsr.project.checkers.game.validator.InvalidMoveException;
+import bsr.project.checkers.game.validator.LegalMovesCache;
+import bsr.project.checkers.game.validator.MoveError;
+import bsr.project.checkers.game.validator.MoveList;
 import bsr.project.checkers.game.validator.MoveValidator;
 import bsr.project.checkers.protocol.BoardSymbols;
 
@@ -14,13 +16,29 @@ public class GameSession {
 	
 	private Board board;
 	private char currentPlayer = BoardSymbols.WHITE_PAWN;
-	private Optional<Point> nextMove = Optional.empty();
+	/** pole bierki, która musi wykonać następny ruch (kontynuacja bicia) */
+	private int nextMoveSquare = Bitboards.NO_SQUARE;
 	
 	private MoveValidator validator;
+	/** dozwolone ruchy gracza, który wykonuje teraz ruch - generowane raz na turę (po każdym wykonanym ruchu) */
+	private final MoveList legalMoves = new MoveList();
+	private boolean legalMovesValid = false;
+	/** wspólna dla wszystkich gier pamięć dozwolonych ruchów w pozycjach (może nie być używana - null) */
+	private final LegalMovesCache movesCache;
+	/** pełne sekwencje bić gracza, który wykonuje teraz ruch - generowane tylko dla ruchów wielokrotnego bicia */
+	private final CapturePaths capturePaths = new CapturePaths();
+	private boolean capturePathsValid = false;
+	
+	private boolean finished = false;
 	
 	public GameSession(ClientData player1, ClientData player2) {
+		this(player1, player2, null);
+	}
+	
+	public GameSession(ClientData player1, ClientData player2, LegalMovesCache movesCache) {
 		this.player1 = player1;
 		this.player2 = player2;
+		this.movesCache = movesCache;
 		board = new Board();
 		validator = new MoveValidator();
 	}
@@ -29,21 +47,90 @@ public class GameSession {
 	public void executeMove(ClientData player, Point source, Point target) throws InvalidMoveException {
 		
 		char playerColor = player == player1 ? BoardSymbols.WHITE_PAWN : BoardSymbols.BLACK_PAWN;
-		nextMove = validator.advancedMoveValidation(playerColor, board, source, target, nextMove);
-
+		if (playerColor == currentPlayer) {
+			nextMoveSquare = validator.validateMove(playerColor, board, getLegalMoves(), source, target, nextMoveSquare);
+		} else {
+			nextMoveSquare = validator.advancedMoveValidation(playerColor, board, source, target, nextMoveSquare);
+		}
+		
 		// move is valid - execute move
-		BoardLogic.executeMove(board, playerColor, source, target, true);
-
+		BoardLogic.executeMove(board, playerColor, Bitboards.square(source.x, source.y), Bitboards.square(target.x, target.y), true);
+		endMove();
+	}
+	
+	/**
+	 * wykonuje sekwencję bić wysłaną w jednym pakiecie - cała sekwencja lub jej początek
+	 * (wtedy kolejne bicia muszą zostać wykonane tym samym pionkiem), albo nic, jeśli jest niepoprawna
+	 * @param path kolejne pola ruchu (co najmniej 2)
+	 */
+	public void executeMoveSequence(ClientData player, Point[] path) throws InvalidMoveException {
+		if (path.length == 2) {
+			executeMove(player, path[0], path[1]);
+			return;
+		}
+		char playerColor = player == player1 ? BoardSymbols.WHITE_PAWN : BoardSymbols.BLACK_PAWN;
+		// first jump is checked like a single move (with the same error messages)
+		if (playerColor == currentPlayer) {
+			validator.validateMove(playerColor, board, getLegalMoves(), path[0], path[1], nextMoveSquare);
+		} else {
+			validator.advancedMoveValidation(playerColor, board, path[0], path[1], nextMoveSquare);
+		}
+		
+		int[] squares = new int[path.length];
+		for (int i = 0; i < path.length; i++) {
+			squares[i] = Bitboards.square(path[i].x, path[i].y);
+		}
+		int pathIndex = playerColor == currentPlayer ? getCapturePaths().find(squares, squares.length) : -1;
+		if (pathIndex < 0)
+			throw new InvalidMoveException(MoveError.INVALID_CAPTURE_SEQUENCE.getMessage());
+		
+		// sequence is valid - execute all jumps
+		for (int i = 1; i < squares.length; i++) {
+			BoardLogic.executeMove(board, playerColor, squares[i - 1], squares[i], true);
+		}
+		// only the beginning of a sequence - the same piece has to continue beating
+		nextMoveSquare = capturePaths.length(pathIndex) > squares.length ? squares[squares.length - 1] : Bitboards.NO_SQUARE;
+		endMove();
+	}
+	
+	private void endMove() {
+		legalMovesValid = false;
+		capturePathsValid = false;
+		
 		// if current player does not make next move
-		if (!nextMove.isPresent()) {
+		if (nextMoveSquare == Bitboards.NO_SQUARE) {
 			// switch current player
 			currentPlayer = currentPlayer == BoardSymbols.WHITE_PAWN ? BoardSymbols.BLACK_PAWN : BoardSymbols.WHITE_PAWN;
 		}
-		
+	}
+	
+	private CapturePaths getCapturePaths() {
+		if (!capturePathsValid) {
+			validator.generateCapturePaths(currentPlayer, board, nextMoveSquare, capturePaths);
+			capturePathsValid = true;
+		}
+		return capturePaths;
+	}
+	
+	private MoveList getLegalMoves() {
+		if (!legalMovesValid) {
+			if (movesCache == null) {
+				validator.generateLegalMoves(currentPlayer, board, nextMoveSquare, legalMoves);
+			} else {
+				// the same positions (e.g. openings) are repeated in many games
+				long key = Zobrist.position(board, currentPlayer, nextMoveSquare);
+				if (!movesCache.get(key, board, currentPlayer, nextMoveSquare, legalMoves)) {
+					validator.generateLegalMoves(currentPlayer, board, nextMoveSquare, legalMoves);
+					movesCache.put(key, board, currentPlayer, nextMoveSquare, legalMoves);
+				}
+			}
+			legalMovesValid = true;
+		}
+		return legalMoves;
 	}
 	
 	public boolean isAnyMovePossible() {
-		return validator.isAnyMovePossible(currentPlayer, board);
+		return !getLegalMoves().isEmpty();
 	}
 	
 	public ClientData getWinner() {
@@ -55,11 +142,19 @@ public class GameSession {
 	}
 	
 	private boolean hasWhiteWon() {
-		return board.countSymbols(BoardSymbols.BLACK_PAWN, BoardSymbols.BLACK_KING) == 0;
+		return board.getPieceCount(BoardSymbols.BLACK_PAWN) == 0;
 	}
 	
 	private boolean hasBlackWon() {
-		return board.countSymbols(BoardSymbols.WHITE_PAWN, BoardSymbols.WHITE_KING) == 0;
+		return board.getPieceCount(BoardSymbols.WHITE_PAWN) == 0;
+	}
+	
+	public boolean isFinished() {
+		return finished;
+	}
+	
+	public void finish() {
+		finished = true;
 	}
 	
 	public ClientData getPlayer1() {
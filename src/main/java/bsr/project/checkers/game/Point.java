@@ -1,15 +1,45 @@
 package bsr.project.checkers.game;
 
+/**
+ * współrzędne pola planszy (niezmienne) - dla pól planszy używane są wspólne instancje ({@link #of(int, int)})
+ */
 public class Point {
 	
-	public int x;
-	public int y;
+	public final int x;
+	public final int y;
+	
+	/** wspólne instancje wszystkich pól planszy: POINTS[y * BOARD_SIZE + x] */
+	private static final Point[] POINTS = new Point[Board.BOARD_SIZE * Board.BOARD_SIZE];
+	
+	static {
+		for (int y = 0; y < Board.BOARD_SIZE; y++) {
+			for (int x = 0; x < Board.BOARD_SIZE; x++) {
+				POINTS[y * Board.BOARD_SIZE + x] = new Point(x, y);
+			}
+		}
+	}
 	
 	public Point(int x, int y) {
 		this.x = x;
 		this.y = y;
 	}
 	
+	/**
+	 * @return wspólna instancja dla pola planszy lub nowy obiekt dla współrzędnych spoza planszy
+	 */
+	public static Point of(int x, int y) {
+		if (x < 0 || y < 0 || x >= Board.BOARD_SIZE || y >= Board.BOARD_SIZE)
+			return new Point(x, y);
+		return POINTS[y * Board.BOARD_SIZE + x];
+	}
+	
+	/**
+	 * @param square numer ciemnego pola ({@link Bitboards})
+	 */
+	public static Point ofSquare(int square) {
+		return of(Bitboards.squareX(square), Bitboards.squareY(square));
+	}
+	
 	@Override
 	public boolean equals(Object p2) {
 		if (!(p2 instanceof Point))
@@ -17,11 +47,16 @@ public class Point {
 		return this.x == ((Point) p2).x && this.y == ((Point) p2).y;
 	}
 	
+	@Override
+	public int hashCode() {
+		return 31 * x + y;
+	}
+	
 	public String toString() {
 		return "(" + x + "," + y + ")";
 	}
-
+	
 	public Point move(int xOffset, int yOffset){
-		return new Point(x + xOffset, y + yOffset);
+		return of(x + xOffset, y + yOffset);
 	}
-}
\ No newline at end of file
+}
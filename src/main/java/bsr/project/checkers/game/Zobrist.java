@@ -0,0 +1,71 @@
+package bsr.project.checkers.game;
+
+import java.util.Random;
+
+import bsr.project.checkers.protocol.BoardSymbols;
+
+/**
+ * klucze haszowania Zobrista - 64-bitowy skrót pozycji jako XOR losowych kluczy bierek na polach,
+ * aktualizowany przyrostowo przy każdej zmianie pola planszy
+ */
+public class Zobrist {
+	
+	/** stałe ziarno - skróty pozycji są takie same przy każdym uruchomieniu serwera */
+	private static final long SEED = 0x5EEDC4EC4E25L;
+	
+	private static final int WHITE_PAWN = 0;
+	private static final int WHITE_KING = 1;
+	private static final int BLACK_PAWN = 2;
+	private static final int BLACK_KING = 3;
+	
+	/** klucze bierek: PIECES[rodzaj bierki][pole] */
+	private static final long[][] PIECES = new long[4][Bitboards.SQUARES];
+	/** klucz ruchu czarnych */
+	private static final long BLACK_TO_MOVE;
+	/** klucze bierki, która musi kontynuować bicie */
+	private static final long[] NEXT_MOVE = new long[Bitboards.SQUARES];
+	
+	static {
+		Random random = new Random(SEED);
+		for (long[] keys : PIECES) {
+			for (int square = 0; square < Bitboards.SQUARES; square++) {
+				keys[square] = random.nextLong();
+			}
+		}
+		BLACK_TO_MOVE = random.nextLong();
+		for (int square = 0; square < Bitboards.SQUARES; square++) {
+			NEXT_MOVE[square] = random.nextLong();
+		}
+	}
+	
+	/**
+	 * @return klucz bierki na polu lub 0 dla pustego pola
+	 */
+	public static long piece(char symbol, int square) {
+		switch (symbol) {
+			case BoardSymbols.WHITE_PAWN:
+				return PIECES[WHITE_PAWN][square];
+			case BoardSymbols.WHITE_KING:
+				return PIECES[WHITE_KING][square];
+			case BoardSymbols.BLACK_PAWN:
+				return PIECES[BLACK_PAWN][square];
+			case BoardSymbols.BLACK_KING:
+				return PIECES[BLACK_KING][square];
+			default:
+				return 0;
+		}
+	}
+	
+	/**
+	 * skrót pełnej pozycji: bierki na planszy, strona wykonująca ruch i bierka kontynuująca bicie
+	 * @param nextMoveSquare pole bierki, która musi wykonać następny ruch lub {@link Bitboards#NO_SQUARE}
+	 */
+	public static long position(Board board, char playerColor, int nextMoveSquare) {
+		long hash = board.getHash();
+		if (BoardLogic.isBlack(playerColor))
+			hash ^= BLACK_TO_MOVE;
+		if (nextMoveSquare != Bitboards.NO_SQUARE)
+			hash ^= NEXT_MOVE[nextMoveSquare];
+		return hash;
+	}
+}
@@ -0,0 +1,127 @@
+package bsr.project.checkers.game.validator;
+
+import java.util.Arrays;
+
+import bsr.project.checkers.game.Bitboards;
+import bsr.project.checkers.game.Board;
+import bsr.project.checkers.game.BoardLogic;
+
+/**
+ * pełne sekwencje bić gracza wykonującego ruch (od pola startowego do ostatniego bicia),
+ * wyznaczane na maskach bitowych bez zmieniania planszy - wielokrotnego użytku, jak {@link MoveList}
+ */
+public class CapturePaths {
+	
+	/** pole startowe i co najwyżej 12 bić */
+	public static final int MAX_PATH_LENGTH = 13;
+	
+	/** pola wszystkich sekwencji zapisane jedna za drugą */
+	private int[] squares = new int[64];
+	/** początek i długość (liczba pól) każdej sekwencji w tablicy squares */
+	private int[] starts = new int[16];
+	private int[] lengths = new int[16];
+	private int count = 0;
+	private int squaresCount = 0;
+	
+	/** budowana sekwencja */
+	private final int[] current = new int[MAX_PATH_LENGTH];
+	
+	/**
+	 * wyznacza wszystkie sekwencje bić, które nie mogą być już kontynuowane
+	 * (bicie jest obowiązkowe, a promocja piona kończy posunięcie)
+	 * @param playerColor kolor gracza wykonującego ruch
+	 * @param board       plansza
+	 * @param sourceMask  pola, z których można rozpocząć bicie (np. tylko bierka kontynuująca bicie)
+	 */
+	public void generate(char playerColor, Board board, int sourceMask) {
+		count = 0;
+		squaresCount = 0;
+		int own = board.getPieces(playerColor);
+		int opponent = BoardLogic.isWhite(playerColor) ? board.getBlack() : board.getWhite();
+		int jumpers = Bitboards.jumpers(own, opponent, board.getEmpty()) & sourceMask;
+		for (; jumpers != 0; jumpers &= jumpers - 1) {
+			int from = Integer.numberOfTrailingZeros(jumpers);
+			boolean pawn = (board.getKings() & Bitboards.bit(from)) == 0;
+			current[0] = from;
+			extend(playerColor, pawn, from, 1, own, opponent);
+		}
+	}
+	
+	private void extend(char playerColor, boolean pawn, int square, int length, int own, int opponent) {
+		boolean extended = false;
+		int empty = ~(own | opponent);
+		for (int direction = 0; direction < Bitboards.DIRECTIONS; direction++) {
+			int landing = Bitboards.jumpLanding(direction, square);
+			if (landing < 0 || (empty & Bitboards.bit(landing)) == 0)
+				continue;
+			int jumped = Bitboards.neighbour(direction, square);
+			if ((opponent & Bitboards.bit(jumped)) == 0)
+				continue;
+			extended = true;
+			current[length] = landing;
+			if (pawn && BoardLogic.isOnBoardEnd(playerColor, landing)) {
+				// promotion ends the move
+				addPath(length + 1);
+			} else {
+				// beaten piece is removed immediately, the moving piece leaves its field
+				extend(playerColor, pawn, landing, length + 1, own & ~Bitboards.bit(square) | Bitboards.bit(landing), opponent & ~Bitboards.bit(jumped));
+			}
+		}
+		if (!extended && length > 1)
+			addPath(length);
+	}
+	
+	private void addPath(int length) {
+		if (count == starts.length) {
+			starts = Arrays.copyOf(starts, count * 2);
+			lengths = Arrays.copyOf(lengths, count * 2);
+		}
+		if (squaresCount + length > squares.length) {
+			squares = Arrays.copyOf(squares, Math.max(squares.length * 2, squaresCount + length));
+		}
+		System.arraycopy(current, 0, squares, squaresCount, length);
+		starts[count] = squaresCount;
+		lengths[count] = length;
+		count++;
+		squaresCount += length;
+	}
+	
+	public int size() {
+		return count;
+	}
+	
+	public boolean isEmpty() {
+		return count == 0;
+	}
+	
+	/**
+	 * @return liczba pól sekwencji (pole startowe i pola lądowania po kolejnych biciach)
+	 */
+	public int length(int path) {
+		return lengths[path];
+	}
+	
+	public int square(int path, int index) {
+		return squares[starts[path] + index];
+	}
+	
+	/**
+	 * @param path   kolejne pola ruchu
+	 * @param length liczba pól ruchu
+	 * @return indeks sekwencji, której początkiem są podane pola, lub -1, jeśli takiej nie ma
+	 */
+	public int find(int[] path, int length) {
+		for (int i = 0; i < count; i++) {
+			if (lengths[i] < length)
+				continue;
+			int start = starts[i];
+			int k = 0;
+			while (k < length && squares[start + k] == path[k]) {
+				k++;
+			}
+			if (k == length)
+				return i;
+		}
+		return -1;
+	}
+}
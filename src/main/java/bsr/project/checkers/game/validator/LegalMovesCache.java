@@ -0,0 +1,154 @@
+package bsr.project.checkers.game.validator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import bsr.project.checkers.game.Board;
+
+/**
+ * wspólna dla wszystkich sesji gry pamięć podręczna dozwolonych ruchów w pozycji (klucz - skrót Zobrista),
+ * ograniczona - najdawniej używane pozycje są usuwane (LRU);
+ * podzielona na segmenty z osobnymi blokadami, żeby gry obsługiwane przez różne wątki nie czekały na siebie
+ */
+public class LegalMovesCache {
+	
+	private static final int SEGMENTS = 16;
+	
+	private final int capacity;
+	private final Segment[] segments = new Segment[SEGMENTS];
+	
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	
+	/**
+	 * @param capacity maksymalna liczba zapamiętanych pozycji
+	 */
+	public LegalMovesCache(int capacity) {
+		this.capacity = capacity;
+		int segmentCapacity = Math.max(1, (capacity + SEGMENTS - 1) / SEGMENTS);
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment(segmentCapacity);
+		}
+	}
+	
+	private Segment segment(long key) {
+		return segments[(int) (key ^ (key >>> 32)) & (SEGMENTS - 1)];
+	}
+	
+	/**
+	 * @param key   skrót pozycji ({@link bsr.project.checkers.game.Zobrist#position})
+	 * @param moves lista wynikowa - wypełniana, jeśli pozycja została znaleziona
+	 * @return czy dozwolone ruchy w pozycji były zapamiętane
+	 */
+	public boolean get(long key, Board board, char playerColor, int nextMoveSquare, MoveList moves) {
+		Segment segment = segment(key);
+		CachedMoves cached;
+		synchronized (segment) {
+			cached = segment.get(key);
+		}
+		// full position is compared, so that hash collision never returns moves of another position
+		if (cached == null || !cached.matches(board, playerColor, nextMoveSquare)) {
+			misses.increment();
+			return false;
+		}
+		hits.increment();
+		moves.copyFrom(cached.moves);
+		return true;
+	}
+	
+	public void put(long key, Board board, char playerColor, int nextMoveSquare, MoveList moves) {
+		CachedMoves cached = new CachedMoves(board, playerColor, nextMoveSquare, moves.toArray());
+		Segment segment = segment(key);
+		synchronized (segment) {
+			segment.put(key, cached);
+		}
+	}
+	
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+	
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	public long getHits() {
+		return hits.sum();
+	}
+	
+	public long getMisses() {
+		return misses.sum();
+	}
+	
+	public long getEvictions() {
+		return evictions.sum();
+	}
+	
+	/**
+	 * @return odsetek zapytań, dla których pozycja była zapamiętana (0 - 1)
+	 */
+	public double getHitRate() {
+		long hits = getHits();
+		long total = hits + getMisses();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+	
+	/**
+	 * zapamiętana pozycja wraz z dozwolonymi ruchami (niezmienna, współdzielona między wątkami)
+	 */
+	private static class CachedMoves {
+		
+		private final int white;
+		private final int black;
+		private final int kings;
+		private final char playerColor;
+		private final int nextMoveSquare;
+		private final int[] moves;
+		
+		CachedMoves(Board board, char playerColor, int nextMoveSquare, int[] moves) {
+			this.white = board.getWhite();
+			this.black = board.getBlack();
+			this.kings = board.getKings();
+			this.playerColor = playerColor;
+			this.nextMoveSquare = nextMoveSquare;
+			this.moves = moves;
+		}
+		
+		boolean matches(Board board, char playerColor, int nextMoveSquare) {
+			return white == board.getWhite() && black == board.getBlack() && kings == board.getKings()
+					&& this.playerColor == playerColor && this.nextMoveSquare == nextMoveSquare;
+		}
+	}
+	
+	/**
+	 * segment pamięci - mapa w kolejności dostępu, usuwająca najdawniej używany wpis po przekroczeniu pojemności
+	 */
+	private class Segment extends LinkedHashMap<Long, CachedMoves> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final int segmentCapacity;
+		
+		Segment(int segmentCapacity) {
+			super(16, 0.75f, true);
+			this.segmentCapacity = segmentCapacity;
+		}
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, CachedMoves> eldest) {
+			if (size() > segmentCapacity) {
+				evictions.increment();
+				return true;
+			}
+			return false;
+		}
+	}
+}
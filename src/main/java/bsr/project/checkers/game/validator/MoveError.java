@@ -0,0 +1,32 @@
+package bsr.project.checkers.game.validator;
+
+/**
+ * przyczyny odrzucenia ruchu - zwracane jako wynik sprawdzenia, wyjątek tworzony jest tylko dla ruchu wysłanego przez klienta
+ */
+public enum MoveError {
+	
+	SOURCE_OUT_OF_BOUNDS("source field coordinates out of board bounds"),
+	TARGET_OUT_OF_BOUNDS("target field coordinates out of board bounds"),
+	SOURCE_NOT_OWNED("source pawn is not owned by moving player"),
+	TARGET_NOT_EMPTY("target field is not empty"),
+	SOURCE_INVALID_FIELD("source field has invalid coordinates"),
+	TARGET_INVALID_FIELD("target field has invalid coordinates"),
+	SAME_FIELD("target field is the same as source"),
+	NOT_DIAGONAL("only diagonal moves are allowed"),
+	TOO_LONG("cannot move by more than 2 fields"),
+	NEXT_MOVE_PIECE("next move must be made by pawn: "),
+	PAWN_BACKWARDS("pawn cannot move backwards"),
+	JUMP_OVER_OWN("pawn can only jump over opponent's pawns"),
+	BEATING_POSSIBLE("Beating move is possible."),
+	INVALID_CAPTURE_SEQUENCE("move is not a valid capture sequence");
+	
+	private String message;
+	
+	MoveError(String message) {
+		this.message = message;
+	}
+	
+	public String getMessage() {
+		return message;
+	}
+}
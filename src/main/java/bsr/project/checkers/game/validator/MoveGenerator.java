@@ -0,0 +1,68 @@
+package bsr.project.checkers.game.validator;
+
+import bsr.project.checkers.game.Bitboards;
+import bsr.project.checkers.game.Board;
+import bsr.project.checkers.game.BoardLogic;
+
+/**
+ * generator dozwolonych ruchów na podstawie masek bitowych planszy - bez wyjątków i bez tworzenia obiektów
+ */
+public class MoveGenerator {
+	
+	/**
+	 * zapisuje do listy wszystkie dozwolone ruchy gracza:
+	 * jeśli jakakolwiek bierka gracza może bić, dozwolone są tylko bicia (bicie jest obowiązkowe)
+	 * @param playerColor kolor gracza wykonującego ruch
+	 * @param board       plansza
+	 * @param sourceMask  pola, z których można wykonać ruch (np. tylko bierka kontynuująca bicie)
+	 * @param moves       lista wynikowa (czyszczona)
+	 */
+	public void generateLegalMoves(char playerColor, Board board, int sourceMask, MoveList moves) {
+		moves.clear();
+		boolean white = BoardLogic.isWhite(playerColor);
+		int own = board.getPieces(playerColor);
+		int opponent = white ? board.getBlack() : board.getWhite();
+		int empty = board.getEmpty();
+		
+		int jumpers = Bitboards.jumpers(own, opponent, empty);
+		if (jumpers != 0) {
+			// mandatory capture - beating is checked against all player's pieces
+			for (int sources = jumpers & sourceMask; sources != 0; sources &= sources - 1) {
+				int from = Integer.numberOfTrailingZeros(sources);
+				addJumps(from, opponent, empty, moves);
+			}
+		} else {
+			int kings = board.getKings();
+			for (int sources = Bitboards.movers(own, kings, empty, white) & sourceMask; sources != 0; sources &= sources - 1) {
+				int from = Integer.numberOfTrailingZeros(sources);
+				addSteps(from, (kings & Bitboards.bit(from)) != 0, white, empty, moves);
+			}
+		}
+	}
+	
+	private void addJumps(int from, int opponent, int empty, MoveList moves) {
+		for (int direction = 0; direction < Bitboards.DIRECTIONS; direction++) {
+			int landing = Bitboards.jumpLanding(direction, from);
+			if (landing >= 0 && (opponent & Bitboards.bit(Bitboards.neighbour(direction, from))) != 0 && (empty & Bitboards.bit(landing)) != 0)
+				moves.add(from, landing);
+		}
+	}
+	
+	private void addSteps(int from, boolean king, boolean white, int empty, MoveList moves) {
+		// pawns move only forward: white up the board, black down the board
+		if (king || !white) {
+			addStep(from, Bitboards.DOWN_LEFT, empty, moves);
+			addStep(from, Bitboards.DOWN_RIGHT, empty, moves);
+		}
+		if (king || white) {
+			addStep(from, Bitboards.UP_LEFT, empty, moves);
+			addStep(from, Bitboards.UP_RIGHT, empty, moves);
+		}
+	}
+	
+	private void addStep(int from, int direction, int empty, MoveList moves) {
+		int target = Bitboards.neighbour(direction, from);
+		if (target >= 0 && (empty & Bitboards.bit(target)) != 0)
+			moves.add(from, target);
+	}
+}
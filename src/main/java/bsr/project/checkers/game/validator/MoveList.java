@@ -0,0 +1,88 @@
+package bsr.project.checkers.game.validator;
+
+import java.util.Arrays;
+
+import bsr.project.checkers.game.Bitboards;
+
+/**
+ * lista ruchów w tablicy liczb (bez tworzenia obiektów) - ruch zakodowany jako pole źródłowe i docelowe,
+ * wielokrotnego użytku: przed generowaniem jest czyszczona
+ */
+public class MoveList {
+	
+	/** co najwyżej 12 bierek, każda w 4 kierunkach */
+	public static final int MAX_MOVES = 48;
+	
+	private static final int SQUARE_BITS = 5;
+	private static final int SQUARE_MASK = (1 << SQUARE_BITS) - 1;
+	
+	private final int[] moves = new int[MAX_MOVES];
+	private int size = 0;
+	
+	public static int encode(int from, int to) {
+		return from | (to << SQUARE_BITS);
+	}
+	
+	public static int from(int move) {
+		return move & SQUARE_MASK;
+	}
+	
+	public static int to(int move) {
+		return (move >> SQUARE_BITS) & SQUARE_MASK;
+	}
+	
+	/**
+	 * @return czy ruch jest biciem (przeskok o 2 wiersze)
+	 */
+	public static boolean isCapture(int move) {
+		int dy = Bitboards.squareY(to(move)) - Bitboards.squareY(from(move));
+		return dy == 2 || dy == -2;
+	}
+	
+	public void clear() {
+		size = 0;
+	}
+	
+	public void add(int from, int to) {
+		moves[size++] = encode(from, to);
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	public int get(int index) {
+		return moves[index];
+	}
+	
+	/**
+	 * @return kopia ruchów z listy
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(moves, size);
+	}
+	
+	/**
+	 * zastępuje zawartość listy podanymi ruchami
+	 */
+	public void copyFrom(int[] source) {
+		System.arraycopy(source, 0, moves, 0, source.length);
+		size = source.length;
+	}
+	
+	/**
+	 * @return indeks ruchu na liście lub -1, jeśli go nie ma
+	 */
+	public int indexOf(int from, int to) {
+		int move = encode(from, to);
+		for (int i = 0; i < size; i++) {
+			if (moves[i] == move)
+				return i;
+		}
+		return -1;
+	}
+}
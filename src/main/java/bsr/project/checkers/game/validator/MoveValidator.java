@@ -1,10 +1,8 @@
 package bsr.project.checkers.game.validator;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
+import bsr.project.checkers.game.Bitboards;
 import bsr.project.checkers.game.Board;
 import bsr.project.checkers.game.BoardLogic;
 import bsr.project.checkers.game.Point;
@@ -12,9 +10,15 @@ import bsr.project.checkers.game.Point;
 /**
  * walidator do sprawdzania poprawności wykonywanych ruchów
  * zasady gry: <a href="https://pl.wikipedia.org/wiki/Warcaby_angielskie">warcaby angielskie</a>
+ * (używa wspólnego bufora ruchów - jedna instancja na sesję gry)
  */
 public class MoveValidator {
 	
+	/** wszystkie pola - ruch może wykonać dowolna bierka gracza */
+	private static final int ANY_SOURCE = -1;
+	
+	private final MoveGenerator generator = new MoveGenerator();
+	private final MoveList legalMoves = new MoveList();
 	
 	/**
 	 * advanced move validation with checking if possible beating move is being made
@@ -27,21 +31,78 @@ public class MoveValidator {
 	 * @throws InvalidMoveException
 	 */
 	public Optional<Point> advancedMoveValidation(char playerColor, Board board, Point source, Point target, Optional<Point> nextMove) throws InvalidMoveException {
-		
-		Optional<Point> anotherMove = basicMoveValidation(playerColor, board, source, target, nextMove);
-		
-		// sprawdzanie, czy jest możliwe bicie przeciwnika jakimkolwiek pionkiem
-		List<PossibleMove> allPossibleMoves = generateAllPossibleMoves(playerColor, board, Optional.empty());
-		boolean beatingPossible = isBeatingPossible(allPossibleMoves);
-		if (beatingPossible) { //jeśli jest możliwe bicie
-			List<PossibleMove> beatingMoves = filterBeatingMoves(allPossibleMoves);
-			// czy ruch wykonywany jest pionkiem, który może wykonać bicie
-			if (!(beatingMoves.contains(new PossibleMove(source, target)))) {
-				throw new InvalidMoveException("Beating move is possible.");
-			}
+		int nextMoveSquare = nextMove.isPresent() ? Bitboards.square(nextMove.get().x, nextMove.get().y) : Bitboards.NO_SQUARE;
+		int anotherMove = advancedMoveValidation(playerColor, board, source, target, nextMoveSquare);
+		return anotherMove == Bitboards.NO_SQUARE ? Optional.empty() : Optional.of(Point.ofSquare(anotherMove));
+	}
+	
+	/**
+	 * @param nextMoveSquare pole bierki, która musi wykonać następny ruch lub {@link Bitboards#NO_SQUARE}
+	 * @return pole bierki, która musi wykonać kolejny ruch lub {@link Bitboards#NO_SQUARE}
+	 */
+	public int advancedMoveValidation(char playerColor, Board board, Point source, Point target, int nextMoveSquare) throws InvalidMoveException {
+		generateLegalMoves(playerColor, board, nextMoveSquare, legalMoves);
+		return validateMove(playerColor, board, legalMoves, source, target, nextMoveSquare);
+	}
+	
+	/**
+	 * move validation against already generated legal moves
+	 * @param legalMoves     dozwolone ruchy gracza w bieżącym stanie planszy ({@link #generateLegalMoves})
+	 * @param source         source pawn coordinates (może być spoza planszy)
+	 * @param target         target field coordinates (może być spoza planszy)
+	 * @param nextMoveSquare pole bierki, która musi wykonać następny ruch lub {@link Bitboards#NO_SQUARE}
+	 * @return pole bierki, która musi wykonać kolejny ruch lub {@link Bitboards#NO_SQUARE}
+	 * @throws InvalidMoveException
+	 */
+	public int validateMove(char playerColor, Board board, MoveList legalMoves, Point source, Point target, int nextMoveSquare) throws InvalidMoveException {
+		int from = Bitboards.square(source.x, source.y);
+		int to = Bitboards.square(target.x, target.y);
+		if (from < 0 || to < 0) {
+			throw new InvalidMoveException(describeInvalidMove(playerColor, board, source, target, nextMoveSquare));
 		}
-		
-		return anotherMove;
+		return validateMove(playerColor, board, legalMoves, from, to, nextMoveSquare);
+	}
+	
+	/**
+	 * move validation against already generated legal moves
+	 * @param from numer ciemnego pola źródłowego ({@link Bitboards})
+	 * @param to   numer ciemnego pola docelowego
+	 */
+	public int validateMove(char playerColor, Board board, MoveList legalMoves, int from, int to, int nextMoveSquare) throws InvalidMoveException {
+		if (legalMoves.indexOf(from, to) < 0) {
+			// the reason is searched only for the move submitted by player
+			throw new InvalidMoveException(describeInvalidMove(playerColor, board, Point.ofSquare(from), Point.ofSquare(to), nextMoveSquare));
+		}
+		return anotherMove(playerColor, board, from, to);
+	}
+	
+	/**
+	 * @param nextMoveSquare pole bierki, która musi wykonać następny ruch lub {@link Bitboards#NO_SQUARE}
+	 * @param moves          lista wynikowa z dozwolonymi ruchami gracza
+	 */
+	public void generateLegalMoves(char playerColor, Board board, int nextMoveSquare, MoveList moves) {
+		int sourceMask = nextMoveSquare != Bitboards.NO_SQUARE ? Bitboards.bit(nextMoveSquare) : ANY_SOURCE;
+		generator.generateLegalMoves(playerColor, board, sourceMask, moves);
+	}
+	
+	/**
+	 * @param nextMoveSquare pole bierki, która musi wykonać następny ruch lub {@link Bitboards#NO_SQUARE}
+	 * @param paths          wynikowe pełne sekwencje bić gracza
+	 */
+	public void generateCapturePaths(char playerColor, Board board, int nextMoveSquare, CapturePaths paths) {
+		int sourceMask = nextMoveSquare != Bitboards.NO_SQUARE ? Bitboards.bit(nextMoveSquare) : ANY_SOURCE;
+		paths.generate(playerColor, board, sourceMask);
+	}
+	
+	private String describeInvalidMove(char playerColor, Board board, Point source, Point target, int nextMoveSquare) {
+		MoveError error = checkMove(playerColor, board, source, target, nextMoveSquare);
+		if (error == null) {
+			// ruch sam w sobie poprawny, ale jest możliwe bicie przeciwnika
+			error = MoveError.BEATING_POSSIBLE;
+		}
+		if (error == MoveError.NEXT_MOVE_PIECE)
+			return error.getMessage() + source;
+		return error.getMessage();
 	}
 	
 	/**
@@ -50,157 +111,102 @@ public class MoveValidator {
 	 * @param board       current board (before move)
 	 * @param source      source pawn coordinates
 	 * @param target      target field coordinates
-	 * @param nextMove    coordinates of piece to make next move (optional)
-	 * @return anotherMove coordinates of piece that is obligatory to make next move (optional)
-	 * @throws InvalidMoveException if move is invalid
+	 * @param nextMoveSquare pole bierki, która musi wykonać następny ruch lub {@link Bitboards#NO_SQUARE}
+	 * @return przyczyna odrzucenia ruchu lub null, jeśli ruch jest potencjalnie poprawny
 	 */
-	private Optional<Point> basicMoveValidation(char playerColor, Board board, Point source, Point target, Optional<Point> nextMove) throws InvalidMoveException {
+	private MoveError checkMove(char playerColor, Board board, Point source, Point target, int nextMoveSquare) {
 		// współrzędne w granicach planszy
 		if (!BoardLogic.isOnBoard(source))
-			throw new InvalidMoveException("source field coordinates out of board bounds");
+			return MoveError.SOURCE_OUT_OF_BOUNDS;
 		if (!BoardLogic.isOnBoard(target))
-			throw new InvalidMoveException("target field coordinates out of board bounds");
+			return MoveError.TARGET_OUT_OF_BOUNDS;
 		
 		char sourceField = board.getCell(source);
 		char targetField = board.getCell(target);
 		// czy wybrany pionek należy do obecnego gracza
 		if (!BoardLogic.isSameColor(sourceField, playerColor))
-			throw new InvalidMoveException("source pawn is not owned by moving player");
+			return MoveError.SOURCE_NOT_OWNED;
 		
 		// czy docelowe pole jest puste
 		if (!BoardLogic.isEmpty(targetField))
-			throw new InvalidMoveException("target field is not empty");
+			return MoveError.TARGET_NOT_EMPTY;
 		
 		// czy wybrano dozwolone pola (dozwolonego koloru pola planszy) - suma współrzędnych ma być nieparzysta
 		if ((source.x + source.y) % 2 == 0)
-			throw new InvalidMoveException("source field has invalid coordinates");
+			return MoveError.SOURCE_INVALID_FIELD;
 		if ((target.x + target.y) % 2 == 0)
-			throw new InvalidMoveException("target field has invalid coordinates");
+			return MoveError.TARGET_INVALID_FIELD;
 		
 		// czy punkty są różne
 		if (source.equals(target))
-			throw new InvalidMoveException("target field is the same as source");
+			return MoveError.SAME_FIELD;
 		
 		// ruch tylko na ukos
 		int dx = BoardLogic.absDX(source, target);
 		int dy = BoardLogic.absDY(source, target);
 		if (dx != dy)
-			throw new InvalidMoveException("only diagonal moves are allowed");
+			return MoveError.NOT_DIAGONAL;
 		
 		// ruch tylko o 1 lub 2 pola
 		if (dx > 2)
-			throw new InvalidMoveException("cannot move by more than 2 fields");
+			return MoveError.TOO_LONG;
 		
 		// czy wybrano pionka, którym trzeba wykonać następny ruch
-		if (nextMove.isPresent()) {
-			if (!nextMove.get().equals(source)) {
-				throw new InvalidMoveException("next move must be made by pawn: " + source);
+		if (nextMoveSquare != Bitboards.NO_SQUARE) {
+			if (!Point.ofSquare(nextMoveSquare).equals(source)) {
+				return MoveError.NEXT_MOVE_PIECE;
 			}
 		}
 		
 		// "Król ma analogiczną możliwość wykonywania posunięć jak pion, z tym, że może poruszać się i bić także do tyłu"
 		// zwykły pionek, podczas zwykłego ruchu nie może się cofać
 		if (BoardLogic.isPawn(sourceField) && dx == 1 && BoardLogic.isMovingBackwards(sourceField, source, target))
-			throw new InvalidMoveException("pawn cannot move backwards");
+			return MoveError.PAWN_BACKWARDS;
 		
-		if (dx == 1) { // zwykły ruch o jedno pole
-			// ruch potencjalnie poprawny
-			
-		} else if (dx == 2) {
+		if (dx == 2) {
 			// bicie pionka przeciwnika
 			Point between = BoardLogic.pointBetween(source, target);
 			char betweenField = board.getCell(between);
 			// pionek pomiędzy musi być przeciwnego koloru
 			if (!BoardLogic.isOppositeColor(sourceField, betweenField))
-				throw new InvalidMoveException("pawn can only jump over opponent's pawns");
-			// ruch potencjalnie poprawny
+				return MoveError.JUMP_OVER_OWN;
 		}
 		
-		Optional<Point> anotherMove = Optional.empty();
+		// ruch potencjalnie poprawny
+		return null;
+	}
+	
+	/**
+	 * @return pole bierki, która musi wykonać kolejny ruch po danym (poprawnym) ruchu lub {@link Bitboards#NO_SQUARE}
+	 */
+	private int anotherMove(char playerColor, Board board, int from, int to) {
 		// wyjątek: "Promocja piona do króla powoduje zakończenie posunięcia"
-		if (BoardLogic.isOnBoardEnd(playerColor, target) && BoardLogic.isPawn(sourceField)) {
-			return Optional.empty();
+		if (BoardLogic.isOnBoardEnd(playerColor, to) && BoardLogic.isPawn(board.getSquare(from))) {
+			return Bitboards.NO_SQUARE;
 		}
 		// jeśli obecny ruch jest biciem przeciwnika
-		if (dx == 2) {
-			// kopia planszy
-			Board nextBoard = new Board(board);
-			// symulacja ustawienia planszy w kolejnym ruchu
-			BoardLogic.executeMove(nextBoard, playerColor, source, target, false);
+		int jumped = Bitboards.jumpedSquare(from, to);
+		if (jumped != Bitboards.NO_SQUARE) {
+			// ustawienie bierek po biciu (bez kopiowania planszy)
+			boolean white = BoardLogic.isWhite(playerColor);
+			int targetBit = Bitboards.bit(to);
+			int own = board.getPieces(playerColor) & ~Bitboards.bit(from) | targetBit;
+			int opponent = (white ? board.getBlack() : board.getWhite()) & ~Bitboards.bit(jumped);
 			// sprawdzenie, czy można wykonać bicie w kolejnym ruchu tym samym pionkiem
-			if (isBeatingPossible(playerColor, nextBoard, target, Optional.of(target))) {
+			if (Bitboards.jumpTargets(targetBit, opponent, ~(own | opponent)) != 0) {
 				// jeśli tak, to następny ruch wykonany ma być tym samym pionkiem
-				anotherMove = Optional.of(target);
+				return to;
 			}
 		}
-		
-		return anotherMove;
-	}
-	
-	private boolean isMoveValid(char playerColor, Board board, Point source, Point target, Optional<Point> nextMove) {
-		try {
-			basicMoveValidation(playerColor, board, source, target, nextMove);
-			return true;
-		} catch (InvalidMoveException e) {
-			return false;
-		}
-	}
-	
-	private List<PossibleMove> generatePossibleMoves(char playerColor, Board board, Point source, Optional<Point> nextMove) {
-		List<PossibleMove> possibleMoves = new ArrayList<>();
-		char sourceField = board.getCell(source);
-		
-		// check if potential targets are valid
-		List<Point> potentialTargets = BoardLogic.potentialTargets(source, sourceField);
-		for (Point potentialTarget : potentialTargets) {
-			if (isMoveValid(playerColor, board, source, potentialTarget, nextMove)) {
-				possibleMoves.add(new PossibleMove(source, potentialTarget));
-			}
-		}
-		
-		return possibleMoves;
-	}
-	
-	private List<PossibleMove> generateAllPossibleMoves(char playerColor, Board board, Optional<Point> nextMove) {
-		List<PossibleMove> allPossibleMoves = new ArrayList<>();
-		
-		List<Point> playerPawns = BoardLogic.listAllPlayerPawns(playerColor, board);
-		for (Point playerPawn : playerPawns) {
-			List<PossibleMove> possibleMoves = generatePossibleMoves(playerColor, board, playerPawn, nextMove);
-			allPossibleMoves.addAll(possibleMoves);
-		}
-		
-		return allPossibleMoves;
-	}
-	
-	private boolean isBeatingPossible(List<PossibleMove> possibleMoves) {
-		return possibleMoves.stream().anyMatch(PossibleMove::isBeating);
-	}
-	
-	private boolean isBeatingPossible(char playerColor, Board board, Optional<Point> nextMove) {
-		return isBeatingPossible(generateAllPossibleMoves(playerColor, board, nextMove));
-	}
-	
-	private boolean isBeatingPossible(char playerColor, Board board, Point source, Optional<Point> nextMove) {
-		return isBeatingPossible(generatePossibleMoves(playerColor, board, source, nextMove));
-	}
-	
-	private List<PossibleMove> filterBeatingMoves(List<PossibleMove> moves) {
-		return moves.stream().filter(PossibleMove::isBeating).collect(Collectors.toList());
+		return Bitboards.NO_SQUARE;
 	}
 	
 	public boolean isAnyMovePossible(char playerColor, Board board) {
-		List<Point> playerPawns = BoardLogic.listAllPlayerPawns(playerColor, board);
-		for (Point source : playerPawns) {
-			char sourceField = board.getCell(source);
-			// check if potential targets are valid
-			List<Point> potentialTargets = BoardLogic.potentialTargets(source, sourceField);
-			for (Point potentialTarget : potentialTargets) {
-				if (isMoveValid(playerColor, board, source, potentialTarget, Optional.empty())) {
-					return true;
-				}
-			}
-		}
-		return false;
+		int own = board.getPieces(playerColor);
+		int opponent = BoardLogic.isWhite(playerColor) ? board.getBlack() : board.getWhite();
+		int empty = board.getEmpty();
+		if (Bitboards.jumpers(own, opponent, empty) != 0)
+			return true;
+		return Bitboards.movers(own, board.getKings(), empty, BoardLogic.isWhite(playerColor)) != 0;
 	}
-}
\ No newline at end of file
+}
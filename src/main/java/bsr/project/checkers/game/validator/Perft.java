@@ -0,0 +1,123 @@
+package bsr.project.checkers.game.validator;
+
+import bsr.project.checkers.game.Board;
+import bsr.project.checkers.protocol.BoardSymbols;
+
+/**
+ * perft - liczba pozycji (liści drzewa gry) osiągalnych po dokładnie N posunięciach,
+ * do sprawdzania poprawności i szybkości generatora ruchów;
+ * posunięcie to zwykły ruch albo cała sekwencja bić ({@link CapturePaths}),
+ * ruchy są wykonywane i cofane na jednej planszy ({@link Board#makeMove})
+ */
+public class Perft {
+	
+	/**
+	 * pozycje kontrolne: plansza (jak w pakiecie CHB), strona wykonująca ruch i liczby pozycji dla głębokości 1, 2, 3...
+	 * liczby są zgodne z poprzednią implementacją walidatora (ruch po ruchu, na kopiach planszy);
+	 * z planszy początkowej do głębokości 4 są równe perft warcabów angielskich, dalej są większe,
+	 * bo na tym serwerze piony mogą bić także do tyłu
+	 */
+	public static final String[] CHECK_BOARDS = {
+			"OCOCOCOCCOCOCOCOOCOCOCOCOOOOOOOOOOOOOOOOBOBOBOBOOBOBOBOBBOBOBOBO",
+			// black must make a multi-jump
+			"OOOCOCOCOOCOCOOOOCOOOCOOOOOOOOBOOOOOOOOOCOBOOOBOOOOBOOOOBOBOBOOO",
+			// kings of both colors
+			"OCOOOCODCOOOOOOOOOOOOOOBOOOOOOOOOOOOOOOBOOOOOOOOOOOOOOOOOOBOEOOO",
+	};
+	public static final char[] CHECK_PLAYERS = {
+			BoardSymbols.WHITE_PAWN,
+			BoardSymbols.BLACK_PAWN,
+			BoardSymbols.WHITE_PAWN,
+	};
+	public static final long[][] CHECK_NODES = {
+			{7, 49, 302, 1469, 7482, 37986, 190146},
+			{1, 1, 8, 50, 319, 1867, 11279},
+			{5, 19, 79, 414, 1806, 10498, 45825},
+	};
+	
+	/** ruch może wykonać dowolna bierka */
+	private static final int ANY_SOURCE = -1;
+	
+	private final MoveGenerator generator = new MoveGenerator();
+	/** bufory ruchów dla każdego poziomu drzewa - bez tworzenia obiektów podczas liczenia */
+	private final MoveList[] moves;
+	private final CapturePaths[] paths;
+	/** informacje do cofnięcia kolejnych bić sekwencji (dla każdego poziomu drzewa) */
+	private final int[][] undo;
+	
+	public Perft(int maxDepth) {
+		moves = new MoveList[maxDepth + 1];
+		paths = new CapturePaths[maxDepth + 1];
+		undo = new int[maxDepth + 1][CapturePaths.MAX_PATH_LENGTH];
+		for (int i = 0; i <= maxDepth; i++) {
+			moves[i] = new MoveList();
+			paths[i] = new CapturePaths();
+		}
+	}
+	
+	/**
+	 * @param board       pozycja (po zakończeniu ma ten sam stan)
+	 * @param playerColor strona wykonująca ruch
+	 * @param depth       liczba posunięć (nie większa niż podana w konstruktorze)
+	 * @return liczba pozycji osiągalnych po dokładnie depth posunięciach
+	 */
+	public long perft(Board board, char playerColor, int depth) {
+		if (depth == 0)
+			return 1;
+		if (depth >= moves.length)
+			throw new IllegalArgumentException("depth is greater than " + (moves.length - 1));
+		char opponent = playerColor == BoardSymbols.WHITE_PAWN ? BoardSymbols.BLACK_PAWN : BoardSymbols.WHITE_PAWN;
+		
+		// capture is mandatory - whole sequences are counted as one move
+		CapturePaths capturePaths = paths[depth];
+		capturePaths.generate(playerColor, board, ANY_SOURCE);
+		if (!capturePaths.isEmpty()) {
+			if (depth == 1)
+				return capturePaths.size();
+			int[] pathUndo = undo[depth];
+			long nodes = 0;
+			for (int path = 0; path < capturePaths.size(); path++) {
+				int length = capturePaths.length(path);
+				for (int i = 1; i < length; i++) {
+					pathUndo[i] = board.makeMove(capturePaths.square(path, i - 1), capturePaths.square(path, i));
+				}
+				nodes += perft(board, opponent, depth - 1);
+				for (int i = length - 1; i > 0; i--) {
+					board.unmakeMove(capturePaths.square(path, i - 1), capturePaths.square(path, i), pathUndo[i]);
+				}
+			}
+			return nodes;
+		}
+		
+		MoveList moveList = moves[depth];
+		generator.generateLegalMoves(playerColor, board, ANY_SOURCE, moveList);
+		if (depth == 1)
+			return moveList.size();
+		long nodes = 0;
+		for (int i = 0; i < moveList.size(); i++) {
+			int from = MoveList.from(moveList.get(i));
+			int to = MoveList.to(moveList.get(i));
+			int moveUndo = board.makeMove(from, to);
+			nodes += perft(board, opponent, depth - 1);
+			board.unmakeMove(from, to, moveUndo);
+		}
+		return nodes;
+	}
+	
+	/**
+	 * sprawdza generator ruchów na pozycjach kontrolnych
+	 * @return opis pierwszej niezgodności lub null, jeśli wszystkie liczby pozycji są poprawne
+	 */
+	public String check() {
+		for (int position = 0; position < CHECK_BOARDS.length; position++) {
+			Board board = Board.fromString(CHECK_BOARDS[position]);
+			long[] expected = CHECK_NODES[position];
+			for (int depth = 1; depth <= expected.length && depth < moves.length; depth++) {
+				long nodes = perft(board, CHECK_PLAYERS[position], depth);
+				if (nodes != expected[depth - 1])
+					return "position " + (position + 1) + ", depth " + depth + ": " + nodes + " nodes, expected " + expected[depth - 1];
+			}
+		}
+		return null;
+	}
+}
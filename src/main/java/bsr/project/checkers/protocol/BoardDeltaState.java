@@ -0,0 +1,83 @@
+package bsr.project.checkers.protocol;
+
+import java.util.zip.CRC32;
+
+import bsr.project.checkers.game.Board;
+
+/**
+ * plansza ostatnio wysłana do klienta i numer kolejny zmiany - na tej podstawie wysyłane są tylko zmienione pola (DCB);
+ * używana pod blokadą sesji gry, w której uczestniczy klient
+ */
+public class BoardDeltaState {
+	
+	/** co ile pakietów DCB dołączana jest suma kontrolna pełnej planszy */
+	public static final int CHECKSUM_INTERVAL = 8;
+	
+	private static final int CELLS = Board.BOARD_SIZE * Board.BOARD_SIZE;
+	
+	/** symbole pól w kolejności takiej jak w pakiecie CHB */
+	private final byte[] sentCells = new byte[CELLS];
+	private boolean baseline = false;
+	private int sequence = 0;
+	
+	/**
+	 * zapomina wysłaną planszę - następna aktualizacja zostanie wysłana w całości
+	 */
+	public void reset() {
+		baseline = false;
+	}
+	
+	/**
+	 * zapamiętuje planszę wysłaną w całości (CHB), numeracja zmian zaczyna się od nowa
+	 */
+	void setBaseline(Board board) {
+		for (int y = 0; y < Board.BOARD_SIZE; y++) {
+			for (int x = 0; x < Board.BOARD_SIZE; x++) {
+				sentCells[y * Board.BOARD_SIZE + x] = (byte) board.getCell(x, y);
+			}
+		}
+		baseline = true;
+		sequence = 0;
+	}
+	
+	boolean hasBaseline() {
+		return baseline;
+	}
+	
+	/**
+	 * aktualizuje zapamiętaną planszę
+	 * @return zmienione pola jako trójki xyS lub null, jeśli plansza się nie zmieniła
+	 */
+	String update(Board board) {
+		StringBuilder changes = null;
+		for (int y = 0; y < Board.BOARD_SIZE; y++) {
+			for (int x = 0; x < Board.BOARD_SIZE; x++) {
+				char symbol = board.getCell(x, y);
+				int index = y * Board.BOARD_SIZE + x;
+				if (sentCells[index] != (byte) symbol) {
+					sentCells[index] = (byte) symbol;
+					if (changes == null)
+						changes = new StringBuilder(12);
+					changes.append((char) ('0' + x)).append((char) ('0' + y)).append(symbol);
+				}
+			}
+		}
+		if (changes == null)
+			return null;
+		sequence++;
+		return changes.toString();
+	}
+	
+	int getSequence() {
+		return sequence;
+	}
+	
+	/**
+	 * @return CRC32 zapamiętanej planszy
+	 */
+	long checksum() {
+		CRC32 crc = new CRC32();
+		crc.update(sentCells, 0, CELLS);
+		return crc.getValue();
+	}
+}
@@ -0,0 +1,67 @@
+package bsr.project.checkers.protocol;
+
+import java.nio.charset.Charset;
+
+/**
+ * widok fragmentu tablicy bajtów jako ciągu znaków (bez kopiowania) - każdy bajt to jeden znak,
+ * co wystarcza do analizy kodów i separatorów protokołu (ASCII);
+ * pełne dekodowanie (np. loginów) odbywa się dopiero w {@link #toString()}
+ */
+public class ByteSequence implements CharSequence {
+	
+	private static final Charset CHARSET = Charset.defaultCharset();
+	
+	private byte[] array;
+	private int offset;
+	private int length;
+	
+	public ByteSequence() {
+		this(new byte[0], 0, 0);
+	}
+	
+	public ByteSequence(byte[] array, int offset, int length) {
+		set(array, offset, length);
+	}
+	
+	/**
+	 * ustawia widok na inny fragment (ponowne użycie obiektu)
+	 */
+	public void set(byte[] array, int offset, int length) {
+		this.array = array;
+		this.offset = offset;
+		this.length = length;
+	}
+	
+	/**
+	 * @return niezależna kopia bieżącego fragmentu (bufor źródłowy może zostać nadpisany)
+	 */
+	public ByteSequence copy() {
+		byte[] copied = new byte[length];
+		System.arraycopy(array, offset, copied, 0, length);
+		return new ByteSequence(copied, 0, length);
+	}
+	
+	@Override
+	public int length() {
+		return length;
+	}
+	
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length)
+			throw new IndexOutOfBoundsException("index out of bounds: " + index);
+		return (char) (array[offset + index] & 0xff);
+	}
+	
+	@Override
+	public ByteSequence subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end)
+			throw new IndexOutOfBoundsException("invalid subsequence bounds: " + start + ", " + end);
+		return new ByteSequence(array, offset + start, end - start);
+	}
+	
+	@Override
+	public String toString() {
+		return new String(array, offset, length, CHARSET);
+	}
+}
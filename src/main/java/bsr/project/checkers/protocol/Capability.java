@@ -0,0 +1,38 @@
+package bsr.project.checkers.protocol;
+
+/**
+ * opcjonalne rozszerzenia protokołu, zgłaszane przez klienta przy logowaniu:
+ * LGN#login#hasło#capability1,capability2 - serwer odpowiada LGN#1#zaakceptowane rozszerzenia
+ * (klienci bez tego pola otrzymują odpowiedzi w pierwotnej postaci)
+ */
+public enum Capability {
+	
+	/** zmiany planszy przesyłane jako różnice (pakiet DCB) zamiast pełnej planszy CHB */
+	DELTA_BOARD("DELTA"),
+	/** wielokrotne bicie wysłane w jednym pakiecie MOV#x1#y1#x2#y2#x3#y3... */
+	MULTI_JUMP("MJUMP");
+	
+	public static final char LIST_SEPARATOR = ',';
+	
+	private String name;
+	
+	Capability(String name) {
+		this.name = name;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * @return rozszerzenie o podanej nazwie lub null, jeśli serwer go nie obsługuje
+	 */
+	public static Capability parseByName(String name) {
+		for (Capability capability : values()) {
+			if (capability.getName().equals(name)) {
+				return capability;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,38 @@
+package bsr.project.checkers.protocol;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * pakiet z loginem i hasłem (logowanie, rejestracja)
+ */
+public class CredentialsPacket extends ProtocolPacket {
+	
+	private final String login;
+	private final String password;
+	/** rozszerzenia protokołu zgłoszone przy logowaniu (obsługiwane przez serwer) */
+	private final Set<Capability> capabilities;
+	
+	public CredentialsPacket(PacketType type, String login, String password) {
+		this(type, login, password, EnumSet.noneOf(Capability.class));
+	}
+	
+	public CredentialsPacket(PacketType type, String login, String password, Set<Capability> capabilities) {
+		super(type);
+		this.login = login;
+		this.password = password;
+		this.capabilities = capabilities;
+	}
+	
+	public String getLogin() {
+		return login;
+	}
+	
+	public String getPassword() {
+		return password;
+	}
+	
+	public Set<Capability> getCapabilities() {
+		return capabilities;
+	}
+}
@@ -0,0 +1,18 @@
+package bsr.project.checkers.protocol;
+
+/**
+ * pakiet z decyzją tak / nie (odpowiedź na zaproszenie do gry)
+ */
+public class DecisionPacket extends ProtocolPacket {
+	
+	private final boolean agreed;
+	
+	public DecisionPacket(PacketType type, boolean agreed) {
+		super(type);
+		this.agreed = agreed;
+	}
+	
+	public boolean isAgreed() {
+		return agreed;
+	}
+}
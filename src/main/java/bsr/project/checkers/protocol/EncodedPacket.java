@@ -0,0 +1,35 @@
+package bsr.project.checkers.protocol;
+
+/**
+ * pakiet o stałej treści, zakodowany do bajtów jednorazowo (razem ze znakiem końca linii)
+ */
+public class EncodedPacket implements IOutboundPacket {
+	
+	private final byte[] encoded;
+	
+	private EncodedPacket(byte[] encoded) {
+		this.encoded = encoded;
+	}
+	
+	/**
+	 * @param type       typ pakietu
+	 * @param parameters stałe parametry pakietu
+	 * @return pakiet zakodowany do postaci gotowej do wysłania
+	 */
+	public static EncodedPacket encode(PacketType type, String... parameters) {
+		OutboundBuffer out = new OutboundBuffer(16);
+		out.startPacket(type);
+		for (String parameter : parameters) {
+			out.param(parameter);
+		}
+		out.endPacket();
+		byte[] encoded = new byte[out.length()];
+		System.arraycopy(out.array(), 0, encoded, 0, out.length());
+		return new EncodedPacket(encoded);
+	}
+	
+	@Override
+	public void writeTo(OutboundBuffer out) {
+		out.write(encoded);
+	}
+}
@@ -0,0 +1,12 @@
+package bsr.project.checkers.protocol;
+
+import java.io.IOException;
+
+public class FrameTooLongException extends IOException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public FrameTooLongException(String message) {
+		super(message);
+	}
+}
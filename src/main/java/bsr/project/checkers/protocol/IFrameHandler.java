@@ -0,0 +1,10 @@
+package bsr.project.checkers.protocol;
+
+public interface IFrameHandler {
+	
+	/**
+	 * @param frame odebrana linia (bez znaków końca linii) - widok ważny tylko w trakcie wywołania
+	 */
+	void onFrame(ByteSequence frame);
+	
+}
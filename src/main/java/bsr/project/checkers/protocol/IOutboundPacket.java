@@ -0,0 +1,13 @@
+package bsr.project.checkers.protocol;
+
+/**
+ * pakiet do wysłania do klienta - zapisywany bezpośrednio do bufora wyjściowego połączenia
+ */
+public interface IOutboundPacket {
+	
+	/**
+	 * @param out bufor wyjściowy połączenia (wywołujący posiada jego wyłączny dostęp)
+	 */
+	void writeTo(OutboundBuffer out);
+	
+}
@@ -0,0 +1,78 @@
+package bsr.project.checkers.protocol;
+
+/**
+ * dzieli odebrane bajty na linie (ramki pakietów) zakończone znakami CR lub LF,
+ * bez tworzenia nowych obiektów - linie mieszczące się w odebranym fragmencie przekazywane są jako jego widok,
+ * a tylko początki linii rozciętych pomiędzy kolejnymi odczytami kopiowane są do stałego bufora
+ */
+public class LineFramer {
+	
+	private final int maxFrameLength;
+	
+	/** początek linii, której koniec jeszcze nie nadszedł */
+	private final byte[] pending;
+	private int pendingLength = 0;
+	/** czy pomijać resztę zbyt długiej linii */
+	private boolean discarding = false;
+	
+	private final ByteSequence frame = new ByteSequence();
+	
+	public LineFramer(int maxFrameLength) {
+		this.maxFrameLength = maxFrameLength;
+		pending = new byte[maxFrameLength];
+	}
+	
+	/**
+	 * przekazuje do obsługi wszystkie linie zakończone w podanym fragmencie danych
+	 * @throws FrameTooLongException jeśli linia przekracza maksymalną długość (reszta linii zostanie pominięta)
+	 */
+	public void feed(byte[] data, int offset, int length, IFrameHandler handler) throws FrameTooLongException {
+		int end = offset + length;
+		int frameStart = offset;
+		for (int i = offset; i < end; i++) {
+			byte b = data[i];
+			if (b != '\r' && b != '\n')
+				continue;
+			
+			if (discarding) {
+				discarding = false;
+			} else if (pendingLength > 0) {
+				// line started in one of previous fragments
+				appendPending(data, frameStart, i - frameStart);
+				int frameLength = pendingLength;
+				pendingLength = 0;
+				emit(pending, 0, frameLength, handler);
+			} else if (i > frameStart) {
+				if (i - frameStart > maxFrameLength)
+					throw frameTooLong();
+				emit(data, frameStart, i - frameStart, handler);
+			}
+			// empty lines (e.g. LF after CR) are skipped
+			frameStart = i + 1;
+		}
+		// beginning of the next line
+		if (frameStart < end && !discarding) {
+			appendPending(data, frameStart, end - frameStart);
+		}
+	}
+	
+	private void emit(byte[] array, int offset, int length, IFrameHandler handler) {
+		frame.set(array, offset, length);
+		handler.onFrame(frame);
+	}
+	
+	private void appendPending(byte[] data, int offset, int length) throws FrameTooLongException {
+		if (pendingLength + length > maxFrameLength) {
+			// skip the rest of line up to the next terminator
+			pendingLength = 0;
+			discarding = true;
+			throw frameTooLong();
+		}
+		System.arraycopy(data, offset, pending, pendingLength, length);
+		pendingLength += length;
+	}
+	
+	private FrameTooLongException frameTooLong() {
+		return new FrameTooLongException("received line exceeds maximum length of " + maxFrameLength + " bytes");
+	}
+}
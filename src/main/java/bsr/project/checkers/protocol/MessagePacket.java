@@ -0,0 +1,18 @@
+package bsr.project.checkers.protocol;
+
+/**
+ * pakiet z komunikatem tekstowym (błędy)
+ */
+public class MessagePacket extends ProtocolPacket {
+	
+	private final String message;
+	
+	public MessagePacket(PacketType type, String message) {
+		super(type);
+		this.message = message;
+	}
+	
+	public String getMessage() {
+		return message;
+	}
+}
@@ -0,0 +1,70 @@
+package bsr.project.checkers.protocol;
+
+/**
+ * pakiet wykonania ruchu - współrzędne pola źródłowego i docelowego
+ * (lub kolejnych pól wielokrotnego bicia: MOV#x1#y1#x2#y2#x3#y3...)
+ */
+public class MovePacket extends ProtocolPacket {
+	
+	/** maksymalna liczba pól w jednym pakiecie ruchu (pole startowe i co najwyżej 12 bić) */
+	public static final int MAX_PATH_POINTS = 13;
+	
+	private final int xFrom;
+	private final int yFrom;
+	private final int xTo;
+	private final int yTo;
+	/** współrzędne wszystkich pól wielokrotnego bicia (x1, y1, x2, y2...) lub null dla zwykłego ruchu */
+	private final int[] path;
+	
+	public MovePacket(int xFrom, int yFrom, int xTo, int yTo) {
+		super(PacketType.MAKE_MOVE);
+		this.xFrom = xFrom;
+		this.yFrom = yFrom;
+		this.xTo = xTo;
+		this.yTo = yTo;
+		this.path = null;
+	}
+	
+	/**
+	 * @param path współrzędne kolejnych pól (x1, y1, x2, y2...) - co najmniej 2 pola
+	 */
+	public MovePacket(int[] path) {
+		super(PacketType.MAKE_MOVE);
+		this.xFrom = path[0];
+		this.yFrom = path[1];
+		this.xTo = path[2];
+		this.yTo = path[3];
+		this.path = path;
+	}
+	
+	public int getXFrom() {
+		return xFrom;
+	}
+	
+	public int getYFrom() {
+		return yFrom;
+	}
+	
+	public int getXTo() {
+		return xTo;
+	}
+	
+	public int getYTo() {
+		return yTo;
+	}
+	
+	/**
+	 * @return liczba pól ruchu (2 dla pojedynczego ruchu)
+	 */
+	public int getPointCount() {
+		return path == null ? 2 : path.length / 2;
+	}
+	
+	public int getX(int point) {
+		return path == null ? (point == 0 ? xFrom : xTo) : path[point * 2];
+	}
+	
+	public int getY(int point) {
+		return path == null ? (point == 0 ? yFrom : yTo) : path[point * 2 + 1];
+	}
+}
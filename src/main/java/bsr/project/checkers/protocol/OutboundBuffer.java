@@ -0,0 +1,166 @@
+package bsr.project.checkers.protocol;
+
+import java.nio.charset.Charset;
+
+/**
+ * bufor wyjściowy połączenia, do którego pakiety zapisywane są bezpośrednio jako bajty
+ * (bez składania pośrednich łańcuchów), używany wielokrotnie - po wysłaniu danych jest czyszczony
+ */
+public class OutboundBuffer {
+	
+	private static final Charset CHARSET = Charset.defaultCharset();
+	private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(CHARSET);
+	private static final byte SEPARATOR = '#';
+	
+	private byte[] buffer;
+	private int length = 0;
+	
+	public OutboundBuffer(int initialCapacity) {
+		buffer = new byte[initialCapacity];
+	}
+	
+	/**
+	 * zapisuje cały pakiet - w razie błędu w trakcie zapisu bufor wraca do poprzedniej zawartości
+	 */
+	public void writePacket(IOutboundPacket packet) {
+		int mark = length;
+		try {
+			packet.writeTo(this);
+		} catch (RuntimeException e) {
+			length = mark;
+			throw e;
+		}
+	}
+	
+	/**
+	 * rozpoczyna pakiet - zapisuje jego kod
+	 */
+	public OutboundBuffer startPacket(PacketType type) {
+		appendChars(type.getCode());
+		return this;
+	}
+	
+	/**
+	 * dopisuje separator i parametr tekstowy
+	 */
+	public OutboundBuffer param(CharSequence value) {
+		appendByte(SEPARATOR);
+		appendChars(value);
+		return this;
+	}
+	
+	public OutboundBuffer param(char value) {
+		appendByte(SEPARATOR);
+		appendChar(value);
+		return this;
+	}
+	
+	/**
+	 * dopisuje separator i liczbę (bez tworzenia łańcucha)
+	 */
+	public OutboundBuffer param(int value) {
+		appendByte(SEPARATOR);
+		if (value < 0) {
+			appendChars(Integer.toString(value));
+			return this;
+		}
+		int digits = 1;
+		for (int rest = value / 10; rest > 0; rest /= 10) {
+			digits++;
+		}
+		ensureCapacity(digits);
+		for (int i = length + digits - 1; i >= length; i--) {
+			buffer[i] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		length += digits;
+		return this;
+	}
+	
+	/**
+	 * @param value parametr logiczny - zapisywany jako 1 lub 0
+	 */
+	public OutboundBuffer param(boolean value) {
+		appendByte(SEPARATOR);
+		appendByte(value ? (byte) '1' : (byte) '0');
+		return this;
+	}
+	
+	/**
+	 * rozpoczyna parametr zapisywany znak po znaku ({@link #appendChar(char)})
+	 */
+	public OutboundBuffer beginParam() {
+		appendByte(SEPARATOR);
+		return this;
+	}
+	
+	/**
+	 * kończy pakiet znakiem końca linii
+	 */
+	public void endPacket() {
+		write(LINE_SEPARATOR);
+	}
+	
+	/**
+	 * dopisuje gotowe (zakodowane) bajty
+	 */
+	public void write(byte[] bytes) {
+		ensureCapacity(bytes.length);
+		System.arraycopy(bytes, 0, buffer, length, bytes.length);
+		length += bytes.length;
+	}
+	
+	public void appendChar(char c) {
+		if (c < 0x80) {
+			appendByte((byte) c);
+		} else {
+			write(String.valueOf(c).getBytes(CHARSET));
+		}
+	}
+	
+	public void appendChars(CharSequence chars) {
+		int count = chars.length();
+		ensureCapacity(count);
+		for (int i = 0; i < count; i++) {
+			char c = chars.charAt(i);
+			if (c >= 0x80) {
+				// non-ASCII text (e.g. login) - encode the rest with the charset, as the stream writer did
+				write(chars.subSequence(i, count).toString().getBytes(CHARSET));
+				return;
+			}
+			buffer[length++] = (byte) c;
+		}
+	}
+	
+	private void appendByte(byte b) {
+		ensureCapacity(1);
+		buffer[length++] = b;
+	}
+	
+	private void ensureCapacity(int additional) {
+		if (length + additional > buffer.length) {
+			byte[] grown = new byte[Math.max(buffer.length * 2, length + additional)];
+			System.arraycopy(buffer, 0, grown, 0, length);
+			buffer = grown;
+		}
+	}
+	
+	/**
+	 * @return tablica z danymi - ważne jest pierwsze {@link #length()} bajtów
+	 */
+	public byte[] array() {
+		return buffer;
+	}
+	
+	public int length() {
+		return length;
+	}
+	
+	public boolean isEmpty() {
+		return length == 0;
+	}
+	
+	public void clear() {
+		length = 0;
+	}
+}
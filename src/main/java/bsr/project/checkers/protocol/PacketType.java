@@ -1,5 +1,7 @@
 package bsr.project.checkers.protocol;
 
+import java.util.Arrays;
+
 public enum PacketType {
 	
 	/**
@@ -97,7 +99,23 @@ public enum PacketType {
 	 * Request:  C -> S: xFrom + yFrom + xTo + yTo (współrzędne ruchu
 	 * Response: S -> C: result (1 – prawidłowy ruch, 0 – nieprawidłowy ruch)
 	 */
-	MAKE_MOVE(15, "MOV");
+	MAKE_MOVE(15, "MOV"),
+	
+	/**
+	 * rozszerzenie protokołu (dla klientów, którzy przy logowaniu zgłosili {@link Capability#DELTA_BOARD})
+	 * 16. Zmiana planszy - przesłanie tylko zmienionych pól względem poprzednio wysłanej planszy
+	 * Request:  S -> C: seq (numer kolejny, pełna plansza CHB ma numer 0) + changes (trójki xyS: współrzędne i nowy symbol pola)
+	 * + opcjonalnie co {@link BoardDeltaState#CHECKSUM_INTERVAL} zmian: checksum (CRC32 pełnej planszy w postaci pakietu CHB, szesnastkowo)
+	 */
+	DELTA_BOARD(16, "DCB"),
+	
+	/**
+	 * rozszerzenie protokołu - prośba o ponowne przesłanie pełnej planszy
+	 * (np. po wykryciu luki w numeracji DCB lub niezgodnej sumy kontrolnej)
+	 * Request:  C -> S
+	 * Response: S -> C: CHB z pełną planszą (kolejne DCB numerowane od nowa)
+	 */
+	RESYNC_BOARD(17, "RSB");
 	
 	
 	private int id;
@@ -121,11 +139,78 @@ public enum PacketType {
 	 * @return PacketType matching to the given code or null
 	 */
 	public static PacketType parseByCode(String code) {
-		for (PacketType type : values()) {
-			if (type.getCode().equals(code)) {
-				return type;
+		if (code == null)
+			return null;
+		return parseByCode(code, 0, code.length());
+	}
+	
+	/**
+	 * wyszukiwanie w stałym czasie (bez tworzenia łańcucha dla kodu) - trzy znaki kodu pakowane są do jednej liczby,
+	 * która indeksuje tablicę doskonałego haszowania
+	 * @param packet odebrany pakiet
+	 * @param start  początek kodu w pakiecie
+	 * @param end    koniec kodu w pakiecie
+	 * @return PacketType matching to the code in given range or null
+	 */
+	public static PacketType parseByCode(CharSequence packet, int start, int end) {
+		if (end - start != CODE_LENGTH)
+			return null;
+		char c0 = packet.charAt(start);
+		char c1 = packet.charAt(start + 1);
+		char c2 = packet.charAt(start + 2);
+		if ((c0 | c1 | c2) > 0xff)
+			return null;
+		int packed = pack(c0, c1, c2);
+		int slot = hashSlot(packed, CodeTable.multiplier);
+		// the slot may be taken by another code (or empty) - compare the whole packed code
+		return CodeTable.packedCodes[slot] == packed ? CodeTable.types[slot] : null;
+	}
+	
+	private static final int CODE_LENGTH = 3;
+	
+	private static int pack(char c0, char c1, char c2) {
+		return c0 << 16 | c1 << 8 | c2;
+	}
+	
+	private static int hashSlot(int packed, int multiplier) {
+		return (packed * multiplier) >>> (32 - CodeTable.HASH_BITS);
+	}
+	
+	/**
+	 * tablica doskonałego haszowania kodów pakietów, wyliczana przy ładowaniu klasy:
+	 * szukany jest mnożnik, dla którego żadne dwa kody nie trafiają do tej samej komórki
+	 */
+	private static class CodeTable {
+		
+		private static final int HASH_BITS = 6;
+		private static final int SIZE = 1 << HASH_BITS;
+		
+		private static final PacketType[] types = new PacketType[SIZE];
+		/** spakowany kod w każdej komórce (-1 - pusta komórka) */
+		private static final int[] packedCodes = new int[SIZE];
+		private static final int multiplier;
+		
+		static {
+			int candidate = 0x9E3779B1;
+			while (!tryFill(candidate)) {
+				candidate += 2;
+			}
+			multiplier = candidate;
+		}
+		
+		private static boolean tryFill(int candidate) {
+			Arrays.fill(types, null);
+			Arrays.fill(packedCodes, -1);
+			for (PacketType type : values()) {
+				String code = type.getCode();
+				int packed = pack(code.charAt(0), code.charAt(1), code.charAt(2));
+				int slot = hashSlot(packed, candidate);
+				if (types[slot] != null)
+					return false;
+				types[slot] = type;
+				packedCodes[slot] = packed;
 			}
+			return true;
 		}
-		return null;
 	}
 }
\ No newline at end of file
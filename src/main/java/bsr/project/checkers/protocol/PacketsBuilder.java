@@ -1,119 +1,169 @@
 package bsr.project.checkers.protocol;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Collection;
+import java.util.Set;
 
 import bsr.project.checkers.client.ClientData;
 import bsr.project.checkers.game.Board;
 
 /**
  * narzędzie do budowania pakietów do wysłania do klienta,
- * typu response (w odpowiedzi na żądanie klienta) lub request (inicjujące komunikację z klientem)
+ * typu response (w odpowiedzi na żądanie klienta) lub request (inicjujące komunikację z klientem);
+ * pakiety o stałej treści są zakodowane jednorazowo, pozostałe zapisywane bezpośrednio do bufora połączenia
  */
 public class PacketsBuilder {
 	
-	private static final String SEPARATOR = "#";
+	private static final EncodedPacket LOGIN_SUCCESS = EncodedPacket.encode(PacketType.LOG_IN, "1");
+	private static final EncodedPacket LOGIN_FAILURE = EncodedPacket.encode(PacketType.LOG_IN, "0");
+	private static final EncodedPacket CREATE_ACCOUNT_SUCCESS = EncodedPacket.encode(PacketType.CREATE_ACCOUNT, "1");
+	private static final EncodedPacket CREATE_ACCOUNT_FAILURE = EncodedPacket.encode(PacketType.CREATE_ACCOUNT, "0");
+	private static final EncodedPacket REQUEST_FOR_GAME_SENT = EncodedPacket.encode(PacketType.CREATE_REQUEST_FOR_GAME, "1");
+	private static final EncodedPacket REQUEST_FOR_GAME_FAILED = EncodedPacket.encode(PacketType.CREATE_REQUEST_FOR_GAME, "0");
+	private static final EncodedPacket INVITATION_ACCEPTED = EncodedPacket.encode(PacketType.RESPONSE_FOR_INVITATION, "1");
+	private static final EncodedPacket INVITATION_REJECTED = EncodedPacket.encode(PacketType.RESPONSE_FOR_INVITATION, "0");
+	private static final EncodedPacket NEW_GAME_WHITE = EncodedPacket.encode(PacketType.NEW_GAME, String.valueOf(BoardSymbols.WHITE_PAWN));
+	private static final EncodedPacket NEW_GAME_BLACK = EncodedPacket.encode(PacketType.NEW_GAME, String.valueOf(BoardSymbols.BLACK_PAWN));
+	private static final EncodedPacket YOUR_MOVE = EncodedPacket.encode(PacketType.YOUR_MOVE);
+	private static final EncodedPacket MOVE_VALID = EncodedPacket.encode(PacketType.MAKE_MOVE, "1");
+	private static final EncodedPacket MOVE_INVALID = EncodedPacket.encode(PacketType.MAKE_MOVE, "0");
 	
 	/**
-	 * @param objs
-	 * @return obiekty zrzutowane na String połączone znakiem separatora
+	 * 1. Login - Autoryzacja w systemie
+	 * @param result 1 w przypadku powodzenia, 0 w przypadku niepowodzenia
 	 */
-	private static String join(Object... objs) {
-		return Arrays.stream(objs).map(Object::toString).collect(Collectors.joining(SEPARATOR));
-	}
-	
-	private String buildPacket(PacketType type, Object... parameters) {
-		// prepend type code to parameters array
-		List<Object> objs = new ArrayList<>();
-		objs.add(type.getCode());
-		for (Object obj : parameters) {
-			objs.add(obj);
-		}
-		return join(objs.toArray(new Object[objs.size()]));
+	public IOutboundPacket responseLogin(boolean result) {
+		return result ? LOGIN_SUCCESS : LOGIN_FAILURE;
 	}
 	
 	/**
-	 * 1. Login - Autoryzacja w systemie
-	 * @param result 1 w przypadku powodzenia, 0 w przypadku niepowodzenia
+	 * 1. Login - odpowiedź dla klienta, który zgłosił rozszerzenia protokołu
+	 * @param capabilities zaakceptowane rozszerzenia - dopisywane jako kolejny parametr, jeśli nie jest pusty
 	 */
-	public String responseLogin(boolean result) {
-		return buildPacket(PacketType.LOG_IN, result ? "1" : "0");
+	public IOutboundPacket responseLogin(boolean result, Set<Capability> capabilities) {
+		if (!result || capabilities.isEmpty())
+			return responseLogin(result);
+		return out -> {
+			out.startPacket(PacketType.LOG_IN).param(true).beginParam();
+			boolean first = true;
+			for (Capability capability : capabilities) {
+				if (!first)
+					out.appendChar(Capability.LIST_SEPARATOR);
+				out.appendChars(capability.getName());
+				first = false;
+			}
+			out.endPacket();
+		};
 	}
 	
 	/**
 	 * 2. Rejestracja - Utworzenie konta w systemie
 	 * @param result 1 w przypadku powodzenia, 0 w przypadku niepowodzenia
 	 */
-	public String responseCreateAccount(boolean result) {
-		return buildPacket(PacketType.CREATE_ACCOUNT, result ? "1" : "0");
+	public IOutboundPacket responseCreateAccount(boolean result) {
+		return result ? CREATE_ACCOUNT_SUCCESS : CREATE_ACCOUNT_FAILURE;
 	}
 	
 	/**
 	 * 3. Lista - Pobranie listy graczy
 	 * @param clients lista graczy (klientów)
 	 */
-	public String responseListPlayers(List<ClientData> clients) {
-		List<String> params = new ArrayList<>();
-		// dla każdego gracza kolejno zwracana para nazwa / status, gdzie status równy A – oznacza gracza gotowego na grę, status B – oznacza gracza zajętego / w trakcie negocjacji / ogólnie nie gotowego na przyjęcie zaproszenia
-		for (ClientData client : clients) {
-			if (client.getLogin() != null) {
-				params.add(client.getLogin()); // nazwa
-				// status równy A – oznacza gracza gotowego na grę, status B – oznacza gracza zajętego
-				String status = client.isReadyForNewGame() ? "A" : "B";
-				params.add(status);
+	public IOutboundPacket responseListPlayers(Collection<ClientData> clients) {
+		return out -> {
+			out.startPacket(PacketType.LIST_PLAYERS);
+			// dla każdego gracza kolejno zwracana para nazwa / status, gdzie status równy A – oznacza gracza gotowego na grę, status B – oznacza gracza zajętego / w trakcie negocjacji / ogólnie nie gotowego na przyjęcie zaproszenia
+			for (ClientData client : clients) {
+				String login = client.getLogin();
+				if (login != null) {
+					out.param(login); // nazwa
+					// status równy A – oznacza gracza gotowego na grę, status B – oznacza gracza zajętego
+					out.param(client.isReadyForNewGame() ? 'A' : 'B');
+				}
 			}
-		}
-		return buildPacket(PacketType.LIST_PLAYERS, params.toArray(new String[params.size()]));
+			out.endPacket();
+		};
 	}
 	
 	/**
 	 * 4. Nowa gra - Prośba o rozpoczęcie nowej gry
 	 * @param result 1 w przypadku gdy prośba została przekazana, 0 – jeśli wystąpił błąd (gracz o podanej nazwie nie istnieje)
 	 */
-	public String responseCreateRequestForGame(boolean result) {
-		return buildPacket(PacketType.CREATE_REQUEST_FOR_GAME, result ? "1" : "0");
+	public IOutboundPacket responseCreateRequestForGame(boolean result) {
+		return result ? REQUEST_FOR_GAME_SENT : REQUEST_FOR_GAME_FAILED;
 	}
 	
 	/**
 	 * 5. Pytanie o grę - przekazanie prośby o rozpoczęcie nowej gry
 	 * @param requestLogin nazwa gracza który nas zaprasza
 	 */
-	public String requestInvitationForGame(String requestLogin) {
-		return buildPacket(PacketType.INVITATION_FOR_GAME, requestLogin);
+	public IOutboundPacket requestInvitationForGame(String requestLogin) {
+		return out -> out.startPacket(PacketType.INVITATION_FOR_GAME).param(requestLogin).endPacket();
 	}
 	
 	/**
 	 * 6. Przekazanie odpowiedzi - przekazanie odpowiedzi na prośbę o nową grę
 	 * @param agreed 1 - zgoda, 0 - brak zgody
 	 */
-	public String requestResponseForInvitation(boolean agreed) {
-		return buildPacket(PacketType.RESPONSE_FOR_INVITATION, agreed ? "1" : "0");
+	public IOutboundPacket requestResponseForInvitation(boolean agreed) {
+		return agreed ? INVITATION_ACCEPTED : INVITATION_REJECTED;
 	}
 	
 	/**
 	 * 7. Inicjacja gry - rozpoczęcie nowej rozgrywki
 	 * @param yourColor kolor, którymi będzie grał dany zawodnik {@see BoardSymbols}
 	 */
-	public String requestNewGame(char yourColor) {
-		return buildPacket(PacketType.NEW_GAME, yourColor);
+	public IOutboundPacket requestNewGame(char yourColor) {
+		if (yourColor == BoardSymbols.WHITE_PAWN)
+			return NEW_GAME_WHITE;
+		if (yourColor == BoardSymbols.BLACK_PAWN)
+			return NEW_GAME_BLACK;
+		return out -> out.startPacket(PacketType.NEW_GAME).param(yourColor).endPacket();
 	}
 	
 	/**
 	 * 8. Plansza - przesłanie planszy
 	 * @param board plansza
 	 */
-	public String requestChangedBoard(Board board) {
-		// plansza - 64 znakowy łańcuch tekstowy składający się ze znaków BCDEO
-		return buildPacket(PacketType.CHANGED_BOARD, board.toString());
+	public IOutboundPacket requestChangedBoard(Board board) {
+		return out -> {
+			// plansza - 64 znakowy łańcuch tekstowy składający się ze znaków BCDEO
+			out.startPacket(PacketType.CHANGED_BOARD).beginParam();
+			for (int y = 0; y < Board.BOARD_SIZE; y++) {
+				for (int x = 0; x < Board.BOARD_SIZE; x++) {
+					out.appendChar(board.getCell(x, y));
+				}
+			}
+			out.endPacket();
+		};
+	}
+	
+	/**
+	 * 16. Zmiana planszy - tylko pola zmienione od ostatnio wysłanej planszy (DCB),
+	 * albo cała plansza (CHB), jeśli klient jej jeszcze nie otrzymał
+	 * @param deltaState plansza ostatnio wysłana do klienta (aktualizowana)
+	 * @param board      plansza
+	 */
+	public IOutboundPacket requestBoardUpdate(BoardDeltaState deltaState, Board board) {
+		String changes = deltaState.hasBaseline() ? deltaState.update(board) : null;
+		if (changes == null) {
+			// nothing to compare with (or nothing has changed) - send full board, numbering starts from 0
+			deltaState.setBaseline(board);
+			return requestChangedBoard(board);
+		}
+		int sequence = deltaState.getSequence();
+		String checksum = sequence % BoardDeltaState.CHECKSUM_INTERVAL == 0 ? Long.toHexString(deltaState.checksum()) : null;
+		return out -> {
+			out.startPacket(PacketType.DELTA_BOARD).param(sequence).param(changes);
+			if (checksum != null)
+				out.param(checksum);
+			out.endPacket();
+		};
 	}
 	
 	/**
 	 * 9. Twój ruch - Informacja dla gracza o zmianie stanu – czy może wykonać ruch
 	 */
-	public String requestYourMove() {
-		return buildPacket(PacketType.YOUR_MOVE);
+	public IOutboundPacket requestYourMove() {
+		return YOUR_MOVE;
 	}
 	
 	/**
@@ -121,32 +171,32 @@ public class PacketsBuilder {
 	 * @param winner wygrany - login
 	 * @param reason przyczyna
 	 */
-	public String requestGameOver(String winner, String reason) {
-		return buildPacket(PacketType.GAME_OVER, winner, reason);
+	public IOutboundPacket requestGameOver(String winner, String reason) {
+		return out -> out.startPacket(PacketType.GAME_OVER).param(winner).param(reason).endPacket();
 	}
 	
 	/**
 	 * 13. Błąd protokołu
 	 * @param message komunikat
 	 */
-	public String requestProtocolError(String message) {
-		return buildPacket(PacketType.ERROR, message);
+	public IOutboundPacket requestProtocolError(String message) {
+		return out -> out.startPacket(PacketType.ERROR).param(message).endPacket();
 	}
 	
 	/**
 	 * 14. Niespójność - błąd stanu
 	 * @param message komunikat
 	 */
-	public String requestInvalidState(String message) {
-		return buildPacket(PacketType.INVALID_STATE, message);
+	public IOutboundPacket requestInvalidState(String message) {
+		return out -> out.startPacket(PacketType.INVALID_STATE).param(message).endPacket();
 	}
 	
 	/**
 	 * 15. Wykonanie ruchu
 	 * @param result 1 – prawidłowy ruch, 0 – nieprawidłowy ruch
 	 */
-	public String responseMakeMove(boolean result) {
-		return buildPacket(PacketType.MAKE_MOVE, result ? "1" : "0");
+	public IOutboundPacket responseMakeMove(boolean result) {
+		return result ? MOVE_VALID : MOVE_INVALID;
 	}
 	
-}
\ No newline at end of file
+}
@@ -3,64 +3,155 @@ package bsr.project.checkers.protocol;
 import static bsr.project.checkers.easter.Ea5t3r3gg.*;
 
 import java.text.ParseException;
-import bsr.project.checkers.game.Point;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
- * narzędzie do parsowania odebranych pakietów
+ * narzędzie do parsowania odebranych pakietów - jednoprzebiegowe, czyta pola bezpośrednio z odebranej linii
+ * (bez dzielenia jej na osobne łańcuchy), tworzy tylko obiekt pakietu i jego parametry tekstowe
  */
 public class PacketsParser {
 	
-	private static final String SEPARATOR = "#";
+	private static final char SEPARATOR = '#';
 	
-	private String getPart(String[] parts, int index) throws ParseException {
-		if (index >= parts.length)
+	/**
+	 * @param start początek pola
+	 * @return indeks separatora kończącego pole lub długość pakietu
+	 */
+	private int fieldEnd(CharSequence packet, int start) {
+		int length = packet.length();
+		for (int i = start; i < length; i++) {
+			if (packet.charAt(i) == SEPARATOR)
+				return i;
+		}
+		return length;
+	}
+	
+	/**
+	 * @param previousEnd koniec poprzedniego pola
+	 * @return początek następnego pola
+	 * @throws ParseException jeśli pakiet nie zawiera więcej (niepustych) pól
+	 */
+	private int nextField(CharSequence packet, int previousEnd) throws ParseException {
+		// trailing empty fields are treated as missing (like in String.split)
+		if (onlySeparators(packet, previousEnd))
 			throw new ParseException("not enough parameters", 0);
-		return parts[index];
+		return previousEnd + 1;
 	}
 	
-	private int getPartInt(String[] parts, int index) throws ParseException {
-		String numberStr = getPart(parts, index);
-		try {
-			return Integer.parseInt(numberStr);
-		} catch (NumberFormatException e) {
-			throw new ParseException("invalid number format: " + numberStr, 0);
+	/**
+	 * @return czy od podanego indeksu do końca pakietu są tylko separatory (lub nic)
+	 */
+	private boolean onlySeparators(CharSequence packet, int start) {
+		int length = packet.length();
+		for (int i = start; i < length; i++) {
+			if (packet.charAt(i) != SEPARATOR)
+				return false;
 		}
+		return true;
 	}
 	
-	public ProtocolPacket parsePacket(String packetStr) throws ParseException {
-		
-		String[] parts = packetStr.split(SEPARATOR);
+	private String getString(CharSequence packet, int start, int end) {
+		return packet.subSequence(start, end).toString();
+	}
+	
+	private int getInt(CharSequence packet, int start, int end) throws ParseException {
+		int i = start;
+		boolean negative = false;
+		if (i < end && (packet.charAt(i) == '-' || packet.charAt(i) == '+')) {
+			negative = packet.charAt(i) == '-';
+			i++;
+		}
+		if (i == end)
+			throw invalidNumber(packet, start, end);
+		long value = 0;
+		for (; i < end; i++) {
+			char c = packet.charAt(i);
+			if (c < '0' || c > '9')
+				throw invalidNumber(packet, start, end);
+			value = value * 10 + (c - '0');
+			if (value > (long) Integer.MAX_VALUE + 1)
+				throw invalidNumber(packet, start, end);
+		}
+		if (negative)
+			value = -value;
+		if (value > Integer.MAX_VALUE)
+			throw invalidNumber(packet, start, end);
+		return (int) value;
+	}
+	
+	/**
+	 * @return rozszerzenia protokołu z listy oddzielonej przecinkami (nieznane są pomijane)
+	 */
+	private Set<Capability> getCapabilities(CharSequence packet, int start, int end) {
+		Set<Capability> capabilities = EnumSet.noneOf(Capability.class);
+		int nameStart = start;
+		for (int i = start; i <= end; i++) {
+			if (i == end || packet.charAt(i) == Capability.LIST_SEPARATOR) {
+				Capability capability = Capability.parseByName(getString(packet, nameStart, i));
+				if (capability != null)
+					capabilities.add(capability);
+				nameStart = i + 1;
+			}
+		}
+		return capabilities;
+	}
+	
+	private ParseException invalidNumber(CharSequence packet, int start, int end) {
+		return new ParseException("invalid number format: " + getString(packet, start, end), 0);
+	}
+	
+	public ProtocolPacket parsePacket(CharSequence packet) throws ParseException {
+		return parsePacket(packet, true);
+	}
+	
+	/**
+	 * @param multiJump czy klient wynegocjował rozszerzenie MJUMP - bez niego dodatkowe pola ruchu są pomijane
+	 */
+	public ProtocolPacket parsePacket(CharSequence packet, boolean multiJump) throws ParseException {
 		
-		if (parts.length == 0)
+		if (onlySeparators(packet, 0))
 			throw new ParseException("Empty packet", 0);
 		
-		String code = getPart(parts, 0);
+		int codeEnd = fieldEnd(packet, 0);
 		
-		PacketType packetType = PacketType.parseByCode(code);
+		PacketType packetType = PacketType.parseByCode(packet, 0, codeEnd);
 		if (packetType == null){
+			String code = getString(packet, 0, codeEnd);
 			validatePacketCode(code);
 			throw new ParseException("Unknown packet code: " + code, 0);
 		}
 		
 		switch (packetType) {
 			// żądania w kierunku Client -> Server
-			case LOG_IN: { // 1. Login - Autoryzacja w systemie
-				String login = getPart(parts, 1);
-				String passwd = getPart(parts, 2);
-				return new ProtocolPacket(packetType, login, passwd);
-			}
+			case LOG_IN: // 1. Login - Autoryzacja w systemie
 			case CREATE_ACCOUNT: { // 2. Rejestracja - Utworzenie konta w systemie
-				String login = getPart(parts, 1);
-				String passwd = getPart(parts, 2);
-				return new ProtocolPacket(packetType, login, passwd);
+				int loginStart = nextField(packet, codeEnd);
+				int loginEnd = fieldEnd(packet, loginStart);
+				int passwdStart = nextField(packet, loginEnd);
+				int passwdEnd = fieldEnd(packet, passwdStart);
+				String login = getString(packet, loginStart, loginEnd);
+				String passwd = getString(packet, passwdStart, passwdEnd);
+				if (packetType == PacketType.LOG_IN && !onlySeparators(packet, passwdEnd)) {
+					// optional protocol extensions announced by client
+					int capsStart = passwdEnd + 1;
+					Set<Capability> capabilities = getCapabilities(packet, capsStart, fieldEnd(packet, capsStart));
+					return new CredentialsPacket(packetType, login, passwd, capabilities);
+				}
+				return new CredentialsPacket(packetType, login, passwd);
 			}
 			case LIST_PLAYERS: { // 3. Lista - Pobranie listy graczy
 				return new ProtocolPacket(packetType);
 			}
 			case CREATE_REQUEST_FOR_GAME: { // 4. Nowa gra - Prośba o rozpoczęcie nowej gry
 				// nazwa graca z którym chcemy się zmierzyć
-				String login = getPart(parts, 1);
-				return new ProtocolPacket(packetType, login);
+				int loginStart = nextField(packet, codeEnd);
+				String login = getString(packet, loginStart, fieldEnd(packet, loginStart));
+				return new PlayerPacket(packetType, login);
+			}
+			case RESYNC_BOARD: { // 17. Prośba o pełną planszę
+				return new ProtocolPacket(packetType);
 			}
 			case GIVE_UP: { // 10. Poddaj - zakoncz grę - poddaj się
 				return new ProtocolPacket(packetType);
@@ -69,34 +160,61 @@ public class PacketsParser {
 				return new ProtocolPacket(packetType);
 			}
 			case MAKE_MOVE: { // 15. Wykonanie ruchu
-				int xFrom = getPartInt(parts, 1);
-				int yFrom = getPartInt(parts, 2);
-				int xTo = getPartInt(parts, 3);
-				int yTo = getPartInt(parts, 4);
-				return new ProtocolPacket(packetType, new Point(xFrom, yFrom), new Point(xTo, yTo));
+				int start = nextField(packet, codeEnd);
+				int end = fieldEnd(packet, start);
+				int xFrom = getInt(packet, start, end);
+				start = nextField(packet, end);
+				end = fieldEnd(packet, start);
+				int yFrom = getInt(packet, start, end);
+				start = nextField(packet, end);
+				end = fieldEnd(packet, start);
+				int xTo = getInt(packet, start, end);
+				start = nextField(packet, end);
+				end = fieldEnd(packet, start);
+				int yTo = getInt(packet, start, end);
+				// clients without the extension may send anything after the move, as before
+				if (!multiJump || onlySeparators(packet, end))
+					return new MovePacket(xFrom, yFrom, xTo, yTo);
+				// protocol extension: further coordinates of a multi-jump
+				int[] path = new int[MovePacket.MAX_PATH_POINTS * 2];
+				path[0] = xFrom;
+				path[1] = yFrom;
+				path[2] = xTo;
+				path[3] = yTo;
+				int coordinates = 4;
+				while (!onlySeparators(packet, end)) {
+					if (coordinates == path.length)
+						throw new ParseException("move path is too long", 0);
+					start = nextField(packet, end);
+					end = fieldEnd(packet, start);
+					path[coordinates++] = getInt(packet, start, end);
+					start = nextField(packet, end);
+					end = fieldEnd(packet, start);
+					path[coordinates++] = getInt(packet, start, end);
+				}
+				return new MovePacket(Arrays.copyOf(path, coordinates));
 			}
 			// odpowiedzi na pakiety z kierunku Server -> Client
 			case INVITATION_FOR_GAME: { // 5. Pytanie o grę - przekazanie prośby o rozpoczęcie nowej gry
 				// 1 – zgoda, 0 – brak zgody
-				String decision = getPart(parts, 1);
-				if (!decision.equals("1") && !decision.equals("0"))
-					throw new ParseException("Invalid decision format: " + decision, 0);
-				Boolean agreed = decision.equals("1");
-				return new ProtocolPacket(packetType, agreed);
-			}
-			case ERROR: { // 13. Błąd protokołu
-				String message = getPart(parts, 1);
-				return new ProtocolPacket(packetType, message);
+				int start = nextField(packet, codeEnd);
+				int end = fieldEnd(packet, start);
+				if (end - start != 1 || (packet.charAt(start) != '1' && packet.charAt(start) != '0'))
+					throw new ParseException("Invalid decision format: " + getString(packet, start, end), 0);
+				boolean agreed = packet.charAt(start) == '1';
+				return new DecisionPacket(packetType, agreed);
 			}
+			case ERROR: // 13. Błąd protokołu
 			case INVALID_STATE: { // 14. Niespójność - błąd stanu
-				String message = getPart(parts, 1);
-				return new ProtocolPacket(packetType, message);
+				int start = nextField(packet, codeEnd);
+				String message = getString(packet, start, fieldEnd(packet, start));
+				return new MessagePacket(packetType, message);
 			}
 			
 			default:
-				throw new ParseException("Invalid packet type: " + code, 0);
+				throw new ParseException("Invalid packet type: " + packetType.getCode(), 0);
 		}
 		
 	}
 	
-}
\ No newline at end of file
+}
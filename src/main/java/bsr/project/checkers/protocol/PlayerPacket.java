@@ -0,0 +1,18 @@
+package bsr.project.checkers.protocol;
+
+/**
+ * pakiet wskazujący innego gracza (prośba o nową grę)
+ */
+public class PlayerPacket extends ProtocolPacket {
+	
+	private final String login;
+	
+	public PlayerPacket(PacketType type, String login) {
+		super(type);
+		this.login = login;
+	}
+	
+	public String getLogin() {
+		return login;
+	}
+}
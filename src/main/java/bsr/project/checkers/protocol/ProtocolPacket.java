@@ -1,36 +1,17 @@
 package bsr.project.checkers.protocol;
 
-import java.util.ArrayList;
-import java.util.List;
-
+/**
+ * odebrany pakiet bez parametrów, pakiety z parametrami mają własne (niezmienne) podklasy
+ */
 public class ProtocolPacket {
 	
-	private PacketType type;
-	private List<Object> parameters;
+	private final PacketType type;
 	
-	public ProtocolPacket(PacketType type, Object... parameters) {
+	public ProtocolPacket(PacketType type) {
 		this.type = type;
-		this.parameters = new ArrayList<>();
-		for (Object parameter : parameters) {
-			this.parameters.add(parameter);
-		}
 	}
 	
 	public PacketType getType() {
 		return type;
 	}
-	
-	public List<Object> getParameters() {
-		return parameters;
-	}
-	
-	@SuppressWarnings("unchecked")
-	public <T> T getParameter(int index, Class<T> clazz) {
-		if (index < 0 || index >= parameters.size())
-			throw new IllegalArgumentException("invalid parameter index");
-		Object param = parameters.get(index);
-		if (!clazz.isInstance(param))
-			throw new IllegalArgumentException("invalid parameter type");
-		return (T) param;
-	}
-}
\ No newline at end of file
+}
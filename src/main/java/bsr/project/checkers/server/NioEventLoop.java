@@ -0,0 +1,86 @@
+package bsr.project.checkers.server;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import bsr.project.checkers.client.NioClientConnection;
+import bsr.project.checkers.logger.Logs;
+
+/**
+ * pętla zdarzeń NIO - jeden wątek obsługuje wiele połączeń klientów za pomocą selektora,
+ * działa do końca życia procesu (zamknięcie gniazda serwera nie rozłącza klientów, tak jak w trybie wątkowym)
+ */
+public class NioEventLoop extends Thread {
+	
+	private Selector selector;
+	
+	/** kanały przyjęte przez wątek serwera, oczekujące na rejestrację w selektorze */
+	private final Queue<SocketChannel> pendingChannels = new ConcurrentLinkedQueue<>();
+	
+	private ServerData serverData;
+	
+	public NioEventLoop(ServerData serverData, int index) throws IOException {
+		super("nio-loop-" + index);
+		this.serverData = serverData;
+		selector = Selector.open();
+		setDaemon(true);
+	}
+	
+	/**
+	 * przekazuje nowe połączenie do obsługi przez tę pętlę (wywoływane z wątku serwera)
+	 */
+	public void register(SocketChannel channel) {
+		pendingChannels.add(channel);
+		selector.wakeup();
+	}
+	
+	@Override
+	public void run() {
+		try {
+			while (true) {
+				selector.select();
+				registerPendingChannels();
+				
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					NioClientConnection connection = (NioClientConnection) key.attachment();
+					try {
+						if (key.isValid() && key.isReadable()) {
+							connection.onReadable();
+						}
+						if (key.isValid() && key.isWritable()) {
+							connection.onWritable();
+						}
+					} catch (CancelledKeyException e) {
+						// connection has been closed by another thread in the meantime
+					}
+				}
+			}
+		} catch (IOException e) {
+			Logs.error(e);
+		}
+	}
+	
+	private void registerPendingChannels() {
+		SocketChannel channel;
+		while ((channel = pendingChannels.poll()) != null) {
+			try {
+				channel.configureBlocking(false);
+				SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+				NioClientConnection connection = new NioClientConnection(serverData, channel, key);
+				key.attach(connection);
+				connection.open();
+			} catch (IOException e) {
+				Logs.error(e);
+			}
+		}
+	}
+}
@@ -1,27 +1,56 @@
 package bsr.project.checkers.server;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import bsr.project.checkers.client.ClientData;
 import bsr.project.checkers.config.Configuration;
 import bsr.project.checkers.game.GameInvitation;
 import bsr.project.checkers.game.GameSession;
+import bsr.project.checkers.game.validator.LegalMovesCache;
 import bsr.project.checkers.users.UsersDatabase;
 
 public class ServerData {
 	
 	private Configuration configuration;
 	private UsersDatabase usersDatabase;
-	
-	private List<ClientData> clients = new ArrayList<>();
-	private List<GameSession> games = new ArrayList<>();
-	private List<GameInvitation> invitations = new ArrayList<>();
+	/** dozwolone ruchy w pozycjach, wspólne dla wszystkich gier (null, jeśli wyłączone) */
+	private LegalMovesCache movesCache;
+	
+	/*
+	 * indeksy są zmieniane tylko w metodach synchronizowanych (spójność między nimi),
+	 * wyszukiwanie (przy każdym pakiecie) odbywa się bez blokady
+	 */
+	/** numer połączenia -> klient, w kolejności połączenia (lista graczy) */
+	private final Map<Long, ClientData> clients = new ConcurrentSkipListMap<>();
+	/** połączony klient -> jego numer połączenia */
+	private final Map<ClientData, Long> connectionNumbers = new ConcurrentHashMap<>();
+	private final AtomicLong nextConnectionNumber = new AtomicLong();
+	/** login -> zalogowany klient */
+	private final Map<String, ClientData> loggedClients = new ConcurrentHashMap<>();
+	/** zaproszony gracz -> zaproszenie */
+	private final Map<ClientData, GameInvitation> invitationsByReceiver = new ConcurrentHashMap<>();
+	/** zapraszający gracz -> zaproszenie */
+	private final Map<ClientData, GameInvitation> invitationsBySender = new ConcurrentHashMap<>();
+	private final Set<GameSession> games = ConcurrentHashMap.newKeySet();
+	/** gracz -> jego gra (oba gracze wskazują tę samą grę) */
+	private final Map<ClientData, GameSession> gamesByPlayer = new ConcurrentHashMap<>();
 	
 	public ServerData() {
-		configuration = new Configuration();
-		usersDatabase = new UsersDatabase();
+		this(new Configuration());
+	}
+	
+	public ServerData(Configuration configuration) {
+		this.configuration = configuration;
+		usersDatabase = new UsersDatabase(configuration.getUsersFile());
+		if (configuration.getMoveCacheSize() > 0)
+			movesCache = new LegalMovesCache(configuration.getMoveCacheSize());
 	}
 	
 	public Configuration getConfiguration() {
@@ -32,78 +61,115 @@ public class ServerData {
 		return usersDatabase;
 	}
 	
+	public LegalMovesCache getMovesCache() {
+		return movesCache;
+	}
+	
 	/* CLIENTS */
-	public synchronized List<ClientData> getClients() {
-		return clients;
+	/**
+	 * @return połączeni klienci w kolejności połączenia (widok bez kopiowania, zmieniany współbieżnie)
+	 */
+	public Collection<ClientData> getClients() {
+		return clients.values();
 	}
 	
-	public synchronized ClientData findLoggedClient(String login) {
-		return clients.stream()
-				.filter(client -> client.getLogin() != null && client.getLogin().equals(login))
-				.findFirst()
-				.orElse(null); // null if not found
+	public ClientData findLoggedClient(String login) {
+		return login == null ? null : loggedClients.get(login);
 	}
 	
 	public synchronized void addClient(ClientData clientData) {
-		clients.add(clientData);
+		long number = nextConnectionNumber.incrementAndGet();
+		if (connectionNumbers.putIfAbsent(clientData, number) == null)
+			clients.put(number, clientData);
 	}
 	
+	/**
+	 * usuwa klienta razem z jego zaproszeniami i grą (jak przy rozłączeniu)
+	 */
 	public synchronized void removeClient(ClientData clientData) {
-		clients.remove(clientData);
+		Long number = connectionNumbers.remove(clientData);
+		if (number != null)
+			clients.remove(number);
+		String login = clientData.getLogin();
+		if (login != null)
+			loggedClients.remove(login, clientData);
+		removeInvitation(invitationsByReceiver.get(clientData));
+		removeInvitation(invitationsBySender.get(clientData));
+		removeGame(gamesByPlayer.get(clientData));
+	}
+	
+	/**
+	 * zajmuje login dla klienta (atomowo - ten sam użytkownik może logować się jednocześnie z innego połączenia)
+	 * @return false, jeśli użytkownik jest już zalogowany
+	 */
+	public synchronized boolean logIn(ClientData clientData, String login) {
+		if (!connectionNumbers.containsKey(clientData) || loggedClients.putIfAbsent(login, clientData) != null)
+			return false;
+		clientData.setLogin(login);
+		return true;
+	}
+	
+	public synchronized void logOut(ClientData clientData) {
+		String login = clientData.getLogin();
+		if (login != null)
+			loggedClients.remove(login, clientData);
+		clientData.setLogin(null);
 	}
 	
 	/* INVITATIONS */
-	public synchronized List<GameInvitation> getInvitations() {
-		refreshInvitations();
-		return invitations;
+	public List<GameInvitation> getInvitations() {
+		return new ArrayList<>(invitationsByReceiver.values());
 	}
 	
-	private synchronized void refreshInvitations() {
-		invitations = invitations.stream()
-				.filter(inv -> inv.sender != null && inv.receiver != null && clients.contains(inv.sender) && clients
-						.contains(inv.receiver))
-				.collect(Collectors.toList());
+	public GameInvitation findInvitation(ClientData invited) {
+		return invitationsByReceiver.get(invited);
 	}
 	
-	public synchronized GameInvitation findInvitation(ClientData invited) {
-		refreshInvitations();
-		return invitations.stream()
-				.filter(inv -> inv.receiver == invited)
-				.findFirst()
-				.orElse(null); // null if not found
+	/**
+	 * @return false, jeśli jeden z graczy już się rozłączył (zaproszenie nie zostało zapamiętane)
+	 */
+	public synchronized boolean addInvitation(GameInvitation invitation) {
+		if (!connectionNumbers.containsKey(invitation.sender) || !connectionNumbers.containsKey(invitation.receiver))
+			return false;
+		invitationsByReceiver.put(invitation.receiver, invitation);
+		invitationsBySender.put(invitation.sender, invitation);
+		return true;
 	}
 	
 	public synchronized void removeInvitation(GameInvitation invitation) {
-		invitations.remove(invitation);
+		if (invitation == null)
+			return;
+		invitationsByReceiver.remove(invitation.receiver, invitation);
+		invitationsBySender.remove(invitation.sender, invitation);
 	}
 	
 	/* GAME SESSIONS */
-	public synchronized List<GameSession> getGames() {
-		refreshGames();
-		return games;
-	}
-	
-	private synchronized void refreshGames() {
-		games = games.stream()
-				.filter(game -> game.getPlayer1() != null && game.getPlayer2() != null && clients.contains(game
-						.getPlayer1()) && clients.contains(game.getPlayer2()))
-				.collect(Collectors.toList());
+	public List<GameSession> getGames() {
+		return new ArrayList<>(games);
 	}
 	
-	public synchronized GameSession findGame(ClientData player) {
-		refreshGames();
-		return games.stream()
-				.filter(game -> game.getPlayer1() == player || game.getPlayer2() == player)
-				.findFirst()
-				.orElse(null); // null if not found
+	public GameSession findGame(ClientData player) {
+		return gamesByPlayer.get(player);
 	}
 	
-	public synchronized void addGame(GameSession game) {
+	/**
+	 * @return false, jeśli jeden z graczy już się rozłączył (gra nie została zapamiętana)
+	 */
+	public synchronized boolean addGame(GameSession game) {
+		if (!connectionNumbers.containsKey(game.getPlayer1()) || !connectionNumbers.containsKey(game.getPlayer2()))
+			return false;
 		games.add(game);
+		gamesByPlayer.put(game.getPlayer1(), game);
+		gamesByPlayer.put(game.getPlayer2(), game);
+		return true;
 	}
 	
 	public synchronized void removeGame(GameSession game) {
+		if (game == null)
+			return;
 		games.remove(game);
+		gamesByPlayer.remove(game.getPlayer1(), game);
+		gamesByPlayer.remove(game.getPlayer2(), game);
 	}
 	
-}
\ No newline at end of file
+}
@@ -1,11 +1,21 @@
 package bsr.project.checkers.server;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import bsr.project.checkers.client.ClientConnectionThread;
+import bsr.project.checkers.client.MemoryTransport;
+import bsr.project.checkers.config.ConnectionMode;
 import bsr.project.checkers.dispatcher.AbstractEvent;
 import bsr.project.checkers.dispatcher.EventDispatcher;
 import bsr.project.checkers.dispatcher.IEventObserver;
@@ -15,9 +25,12 @@ import bsr.project.checkers.logger.Logs;
 public class ServerThread extends Thread implements IEventObserver {
 	
 	private ServerSocket serverSocket;
+	private ServerSocketChannel serverChannel;
 	private volatile boolean active = true;
 	
 	private ServerData serverData;
+	/** licznik połączeń w pamięci (do nazw klientów) */
+	private final AtomicInteger memoryConnections = new AtomicInteger();
 	
 	public ServerThread(ServerData serverData) {
 		this.serverData = serverData;
@@ -33,6 +46,37 @@ public class ServerThread extends Thread implements IEventObserver {
 	public void run() {
 		
 		int port = serverData.getConfiguration().getPort();
+		ConnectionMode connectionMode = serverData.getConfiguration().getConnectionMode();
+		
+		try {
+			switch (connectionMode) {
+				case NIO:
+					acceptNioConnections(port);
+					break;
+				case VIRTUAL:
+					acceptConnectionThreads(port, createVirtualThreadExecutor());
+					break;
+				case MEMORY:
+					waitForClose();
+					break;
+				default:
+					acceptConnectionThreads(port, null);
+			}
+		} catch (SocketException | ClosedChannelException e) {
+			Logs.info("Server connection closed");
+		} catch (IOException e) {
+			Logs.error(e);
+		}
+		
+		EventDispatcher.unregisterEventObserver(this);
+		Logs.debug("Server thread has finished");
+	}
+	
+	/**
+	 * blokujące I/O - każde połączenie obsługiwane przez osobny wątek
+	 * @param executor wykonawca zadań połączeń lub null, jeśli każde połączenie ma dostać nowy wątek platformowy
+	 */
+	private void acceptConnectionThreads(int port, ExecutorService executor) throws IOException {
 		try {
 			serverSocket = new ServerSocket(port);
 		} catch (IOException e) {
@@ -45,23 +89,99 @@ public class ServerThread extends Thread implements IEventObserver {
 			while (active) {
 				Socket clientSocket = serverSocket.accept();
 				ClientConnectionThread clientThread = new ClientConnectionThread(serverData, clientSocket);
-				clientThread.start();
+				if (executor != null) {
+					executor.execute(clientThread);
+				} else {
+					new Thread(clientThread).start();
+				}
 			}
-		} catch (SocketException e) {
-			Logs.info("Server connection closed");
+		} finally {
+			// nie przerywa obsługi już połączonych klientów
+			if (executor != null)
+				executor.shutdown();
+		}
+	}
+	
+	/**
+	 * @return executor uruchamiający każde zadanie na nowym wątku wirtualnym
+	 * lub na wątkach platformowych, jeśli JVM nie obsługuje wątków wirtualnych
+	 */
+	private ExecutorService createVirtualThreadExecutor() {
+		try {
+			// Executors.newVirtualThreadPerTaskExecutor() jest dostępne od Java 21
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			Logs.debug("client connections will be handled by virtual threads");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			Logs.warn("Virtual threads are not supported by this JVM (Java 21+ required), using platform threads");
+			return Executors.newCachedThreadPool();
+		}
+	}
+	
+	/**
+	 * nieblokujące I/O - połączenia rozdzielane po kolei pomiędzy stałą pulę pętli zdarzeń
+	 */
+	private void acceptNioConnections(int port) throws IOException {
+		try {
+			serverChannel = ServerSocketChannel.open();
+			serverChannel.bind(new InetSocketAddress(port));
 		} catch (IOException e) {
-			Logs.error(e);
+			Logs.fatal("Could not create server socket channel on port " + port, e);
 		}
 		
-		EventDispatcher.unregisterEventObserver(this);
-		Logs.debug("Server thread has finished");
+		int loopsCount = serverData.getConfiguration().getNioLoops();
+		NioEventLoop[] loops = new NioEventLoop[loopsCount];
+		for (int i = 0; i < loopsCount; i++) {
+			loops[i] = new NioEventLoop(serverData, i);
+			loops[i].start();
+		}
+		
+		Logs.info("Server listening on port " + port + " (NIO, " + loopsCount + " event loops)");
+		
+		int next = 0;
+		while (active) {
+			SocketChannel clientChannel = serverChannel.accept();
+			loops[next].register(clientChannel);
+			next = (next + 1) % loopsCount;
+		}
+	}
+	
+	/**
+	 * tylko połączenia w pamięci ({@link #connectInMemory()}) - wątek serwera czeka na zamknięcie
+	 */
+	private synchronized void waitForClose() {
+		Logs.info("Server accepts in-memory connections only");
+		while (active) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * nowe połączenie przez potok w pamięci, obsługiwane przez osobny wątek (jak w trybie THREAD)
+	 * @return strona klienta - bajty zapisane do niej trafiają do serwera
+	 */
+	public MemoryTransport connectInMemory() {
+		MemoryTransport serverSide = new MemoryTransport("memory-" + memoryConnections.incrementAndGet());
+		Thread clientThread = new Thread(new ClientConnectionThread(serverData, serverSide));
+		clientThread.setDaemon(true);
+		clientThread.start();
+		return serverSide.getPeer();
 	}
 	
 	public synchronized void close() {
 		if (active) {
 			try {
-				serverSocket.close();
+				if (serverSocket != null)
+					serverSocket.close();
+				if (serverChannel != null)
+					serverChannel.close();
 				active = false;
+				notifyAll();
 			} catch (Exception e) {
 				Logs.error(e);
 			}
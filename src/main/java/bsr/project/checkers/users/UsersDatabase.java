@@ -18,23 +18,33 @@ public class UsersDatabase {
 	
 	private List<User> users = new ArrayList<>();
 	
-	private final String USERS_DATAFILE = "accounts.properties";
+	private static final String DEFAULT_USERS_DATAFILE = "accounts.properties";
+	
+	private final String usersDatafile;
 	
 	public UsersDatabase() {
+		this(DEFAULT_USERS_DATAFILE);
+	}
+	
+	/**
+	 * @param usersDatafile plik z kontami użytkowników (login = suma kontrolna hasła)
+	 */
+	public UsersDatabase(String usersDatafile) {
+		this.usersDatafile = usersDatafile;
 		loadUsers();
 	}
-
+	
 	public List<User> getUsers() {
 		return users;
 	}
 	
 	public synchronized void loadUsers() {
-		Logs.debug("loading users database from file " + USERS_DATAFILE + "...");
+		Logs.debug("loading users database from file " + usersDatafile + "...");
 		
 		Properties prop = new Properties();
 		InputStream input = null;
 		try {
-			input = new FileInputStream(USERS_DATAFILE);
+			input = new FileInputStream(usersDatafile);
 			prop.load(input);
 			
 			for (String key : prop.stringPropertyNames()) {
@@ -62,7 +72,7 @@ public class UsersDatabase {
 		Properties prop = new Properties();
 		OutputStream output = null;
 		try {
-			output = new FileOutputStream(USERS_DATAFILE);
+			output = new FileOutputStream(usersDatafile);
 			
 			for (User user : users) {
 				prop.setProperty(user.getLogin(), user.getPwdCksum());
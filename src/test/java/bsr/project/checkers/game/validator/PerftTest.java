@@ -0,0 +1,61 @@
+package bsr.project.checkers.game.validator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import bsr.project.checkers.game.Board;
+import bsr.project.checkers.protocol.BoardSymbols;
+
+/**
+ * liczby pozycji generatora ruchów (perft) na pozycjach kontrolnych
+ */
+public class PerftTest {
+	
+	private static final int MAX_DEPTH = 5;
+	
+	/**
+	 * plansza początkowa - do głębokości 4 liczby równe perft warcabów angielskich
+	 */
+	@Test
+	public void initialPosition() {
+		Board board = Board.fromString(Perft.CHECK_BOARDS[0]);
+		long[] expected = {7, 49, 302, 1469, 7482};
+		Perft perft = new Perft(MAX_DEPTH);
+		for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+			assertEquals("depth " + depth, expected[depth - 1], perft.perft(board, BoardSymbols.WHITE_PAWN, depth));
+		}
+	}
+	
+	@Test
+	public void checkPositions() {
+		Perft perft = new Perft(MAX_DEPTH);
+		for (int position = 0; position < Perft.CHECK_BOARDS.length; position++) {
+			Board board = Board.fromString(Perft.CHECK_BOARDS[position]);
+			for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+				assertEquals("position " + (position + 1) + ", depth " + depth, Perft.CHECK_NODES[position][depth - 1],
+						perft.perft(board, Perft.CHECK_PLAYERS[position], depth));
+			}
+		}
+	}
+	
+	/**
+	 * ruchy są cofane - po liczeniu plansza jest w stanie początkowym
+	 */
+	@Test
+	public void boardIsRestored() {
+		Perft perft = new Perft(MAX_DEPTH);
+		for (int position = 0; position < Perft.CHECK_BOARDS.length; position++) {
+			Board board = Board.fromString(Perft.CHECK_BOARDS[position]);
+			perft.perft(board, Perft.CHECK_PLAYERS[position], MAX_DEPTH);
+			assertEquals(Perft.CHECK_BOARDS[position], board.toString());
+			assertNull(board.verifyCounters());
+		}
+	}
+	
+	@Test
+	public void check() {
+		assertNull(new Perft(MAX_DEPTH).check());
+	}
+}